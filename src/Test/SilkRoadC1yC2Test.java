@@ -2,6 +2,10 @@ package Test;
 
 import silkroad.*;
 import shapes.*;
+import java.nio.IntBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.util.List;
+import java.util.Random;
 import org.junit.*;
 import static org.junit.Assert.*;
 
@@ -549,6 +553,133 @@ public class SilkRoadC1yC2Test {
         assertEquals(500, silkRoad.robots()[0][1]);
     }
     
+    @Test
+    public void shouldBreakOptimalMoveTiesByStorePlacementOrder() {
+        // Crea simulador
+        silkRoad = new SilkRoad(30);
+        // Lo hace invisible
+        silkRoad.makeInvisible();
+        // Coloca tienda lejana primero (80 / (2 * 20) = 2)
+        silkRoad.placeStore(25, 80);
+        // Coloca tienda cercana después con el mismo puntaje (20 / (2 * 5) = 2)
+        silkRoad.placeStore(0, 20);
+        // Coloca robot
+        silkRoad.placeRobot(5);
+        
+        // Mueve robot óptimamente
+        silkRoad.moveRobot(5);
+        
+        // Verifica que gana la tienda colocada primero
+        assertEquals(25, silkRoad.robots()[0][0]);
+    }
+    
+    @Test
+    public void shouldSkipStoresOccupiedByOtherRobots() {
+        // Crea simulador
+        silkRoad = new SilkRoad(20);
+        // Lo hace invisible
+        silkRoad.makeInvisible();
+        // Coloca tienda con el mejor puntaje, ocupada por un robot
+        silkRoad.placeStore(3, 500);
+        silkRoad.placeRobot(3);
+        // Coloca tienda libre
+        silkRoad.placeStore(10, 50);
+        // Coloca robot a mover
+        silkRoad.placeRobot(1);
+        
+        // Mueve robot óptimamente
+        silkRoad.moveRobot(1);
+        
+        // Verifica que fue a la tienda libre
+        assertEquals(10, silkRoad.robots()[1][0]);
+    }
+    
+    @Test
+    public void shouldMoveOptimallyWithManyStoresOnLongRoad() {
+        // Crea simulador con una ruta larga
+        silkRoad = new SilkRoad(1_000_000);
+        // Lo hace invisible
+        silkRoad.makeInvisible();
+        // Coloca muchas tiendas separadas
+        for (int i = 1; i <= 100; i++) {
+            silkRoad.placeStore(10_000 * i, 100);
+        }
+        // Coloca robot y una tienda cercana con pocos tenges (10 / (2 * 100) gana)
+        silkRoad.placeRobot(505_000);
+        silkRoad.placeStore(505_100, 10);
+        
+        // Mueve robot óptimamente
+        silkRoad.moveRobot(505_000);
+        
+        // Verifica que fue a la tienda cercana
+        assertEquals(505_100, silkRoad.robots()[0][0]);
+        
+        // Quita esa tienda y vuelve a mover el robot
+        silkRoad.removeStore(505_100);
+        silkRoad.moveRobot(505_100);
+        
+        // Verifica que fue a la tienda más cercana con dinero
+        assertEquals(510_000, silkRoad.robots()[0][0]);
+    }
+    
+    @Test
+    public void shouldListTopRobotsByGain() {
+        // Crea simulador
+        silkRoad = new SilkRoad(20);
+        // Lo hace invisible
+        silkRoad.makeInvisible();
+        // Coloca tiendas
+        silkRoad.placeStore(2, 30);
+        silkRoad.placeStore(8, 90);
+        // Coloca robots
+        silkRoad.placeRobot(0);
+        silkRoad.placeRobot(5);
+        silkRoad.placeRobot(12);
+        
+        // Cada robot va a una tienda
+        silkRoad.moveRobot(0, 2);
+        silkRoad.moveRobot(5, 3);
+        
+        // Verifica los dos mejores, de mayor a menor ganancia
+        assertArrayEquals(new int[][]{{8, 90}, {2, 30}}, silkRoad.topRobots(2));
+        
+        // Elimina al líder
+        silkRoad.removeRobot(8);
+        
+        // Verifica que el siguiente pasa a ser el mejor
+        assertArrayEquals(new int[][]{{2, 30}}, silkRoad.topRobots(1));
+    }
+    
+    @Test
+    public void shouldReorderTopRobotsAfterGainsBetweenQueries() {
+        // Crea simulador con tres tiendas y un robot antes de cada una
+        silkRoad = new SilkRoad(20);
+        silkRoad.makeInvisible();
+        silkRoad.placeStore(2, 30);
+        silkRoad.placeStore(8, 90);
+        silkRoad.placeStore(15, 50);
+        silkRoad.placeRobot(0);
+        silkRoad.placeRobot(5);
+        silkRoad.placeRobot(12);
+        
+        // Todos ganan y se elimina al líder sin consultar antes la clasificación
+        silkRoad.moveRobot(0, 2);
+        silkRoad.moveRobot(5, 3);
+        silkRoad.moveRobot(12, 3);
+        silkRoad.removeRobot(8);
+        
+        // Verifica el orden de los que quedan
+        assertArrayEquals(new int[][]{{15, 50}, {2, 30}}, silkRoad.topRobots(3));
+        
+        // El último pasa al primero ganando otra vez en la misma tienda
+        silkRoad.resupplyStores();
+        silkRoad.moveRobot(2, 1);
+        silkRoad.moveRobot(3, -1);
+        
+        // Verifica que cambió de lugar
+        assertArrayEquals(new int[][]{{2, 60}, {15, 50}}, silkRoad.topRobots(2));
+    }
+    
     @Test
     public void shouldNotMoveRobotWhenNoStoresAvailable() {
         // Crea simulador
@@ -684,6 +815,151 @@ public class SilkRoadC1yC2Test {
         assertEquals(200, profits[1][0]);
     }
     
+    @Test
+    public void shouldKeepProfitPerMoveWithCompactHistory() {
+        // Crea simulador
+        silkRoad = new SilkRoad(20);
+        // Lo hace invisible
+        silkRoad.makeInvisible();
+        // Coloca tienda y robot
+        silkRoad.placeStore(5, 100);
+        silkRoad.placeRobot(0);
+        
+        // Mueve el robot a la tienda, luego a una ubicación vacía
+        silkRoad.moveRobot(0, 5);
+        silkRoad.moveRobot(5, 3);
+        
+        // Comprime los historiales y sigue moviendo sin llegar a tiendas
+        silkRoad.setCompactGainsHistory(true);
+        silkRoad.moveRobot(8, 1);
+        silkRoad.moveRobot(9, -9);
+        
+        // Verifica que solo quedó la ganancia de la tienda
+        assertArrayEquals(new int[][]{{100}}, silkRoad.profitPerMove());
+    }
+    
+    @Test
+    public void shouldMatchPlainHistoryAfterSwitchingToCompact() {
+        // Crea un simulador que comprime a mitad de camino y otro que no
+        SilkRoad plain = buildCollectingRoad(false);
+        silkRoad = buildCollectingRoad(true);
+        
+        // Verifica que ambos dan las mismas ganancias por movimiento
+        int[][] expected = plain.profitPerMove();
+        assertArrayEquals(expected, silkRoad.profitPerMove());
+        // Verifica que hubo más corridas que las de un bloque comprimido
+        assertTrue(expected[0].length > 2 * 64);
+        assertEquals(0, expected[1][expected[1].length - 1]);
+    }
+    
+    /**
+     * Construye un simulador donde un robot recolecta ganancias repetidas y
+     * alternadas, y otro recolecta ceros.
+     */
+    private static SilkRoad buildCollectingRoad(boolean compact) {
+        SilkRoad road = new SilkRoad(20);
+        road.makeInvisible();
+        road.placeStore(5, 100);
+        road.placeStore(10, 30);
+        road.placeStore(15, 1);
+        road.placeRobot(0);
+        road.placeRobot("tender", 19);
+        road.moveRobot(0, 5);
+        road.moveRobot(5, 3);
+        
+        road.setCompactGainsHistory(compact);
+        for (int i = 0; i < 100; i++) {
+            // Ganancia de 100, repetida cada tres vueltas
+            int repeats = i % 3 == 0 ? 2 : 1;
+            for (int j = 0; j < repeats; j++) {
+                road.resupplyStores();
+                road.moveRobot(8, -3);
+                road.moveRobot(5, 3);
+            }
+            // Ganancia de 30
+            road.resupplyStores();
+            road.moveRobot(8, 2);
+            road.moveRobot(10, -2);
+            // El robot tierno toma la mitad de 1: ganancia 0
+            road.moveRobot(19, -4);
+            road.moveRobot(15, 4);
+        }
+        return road;
+    }
+    
+    @Test
+    public void shouldMatchPlainHistoryWithNegativeAndZeroGains() {
+        // Crea un robot con historial normal y otro con historial comprimido
+        Robot plain = new NormalRobot(0);
+        Robot compact = new NormalRobot(0);
+        compact.setCompactHistory(true);
+        GainsHistory array = new ArrayGainsHistory();
+        GainsHistory runs = new CompactGainsHistory();
+        
+        // Agrega corridas de ceros, negativos y positivos, más de las de un bloque
+        Random random = new Random(24);
+        for (int run = 0; run < 300; run++) {
+            int value = random.nextInt(7) - 3;
+            int length = 1 + random.nextInt(4);
+            for (int i = 0; i < length; i++) {
+                plain.addGain(value);
+                compact.addGain(value);
+                array.add(value);
+                runs.add(value);
+            }
+        }
+        
+        // Verifica que el historial comprimido lee lo mismo por todas las vías
+        assertEquals(plain.getGainsHistory(), compact.getGainsHistory());
+        assertGainsMatch(plain.getGainsHistory(), compact.getGains());
+        assertEquals(array.size(), runs.size());
+        for (int i = 0; i < array.size(); i++) {
+            assertEquals(array.get(i), runs.get(i));
+        }
+        assertEquals(array.toList(), runs.toList());
+    }
+    
+    @Test
+    public void shouldExposeGainsAsReadOnlyView() {
+        // Crea un robot suelto y le da ganancias
+        Robot robot = new NormalRobot(3);
+        robot.addGain(40);
+        robot.addGain(0);
+        robot.addGain(15);
+        
+        // Verifica que la vista es de solo lectura y coincide con el historial
+        IntBuffer gains = robot.getGains();
+        assertTrue(gains.isReadOnly());
+        assertGainsMatch(robot.getGainsHistory(), gains);
+        try {
+            gains.put(0, 99);
+            fail("La vista no debe aceptar escrituras");
+        } catch (ReadOnlyBufferException e) {
+            // Esperado
+        }
+        
+        // Reinicia el robot y verifica que la vista nueva queda vacía
+        robot.reset();
+        gains = robot.getGains();
+        assertTrue(gains.isReadOnly());
+        assertEquals(0, gains.remaining());
+        assertGainsMatch(robot.getGainsHistory(), gains);
+        
+        // Vuelve a ganar y verifica que la vista sigue al historial
+        robot.addGain(7);
+        gains = robot.getGains();
+        assertTrue(gains.isReadOnly());
+        assertGainsMatch(robot.getGainsHistory(), gains);
+        assertEquals(7, gains.get(0));
+    }
+    
+    private static void assertGainsMatch(List<Integer> expected, IntBuffer actual) {
+        assertEquals(expected.size(), actual.remaining());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals((int) expected.get(i), actual.get(actual.position() + i));
+        }
+    }
+    
     @Test
     public void shouldHandleSingleLocationRoad() {
         // Crea simulador con longitud 1
@@ -725,6 +1001,45 @@ public class SilkRoadC1yC2Test {
         assertEquals(1000, silkRoad.robots()[0][1]);
     }
     
+    @Test
+    public void shouldKeepRowsInOrderAfterRemovingFromTheMiddle() {
+        // Crea simulador con tres tiendas y un robot antes de cada una
+        silkRoad = new SilkRoad(20);
+        silkRoad.makeInvisible();
+        silkRoad.placeStore(2, 10);
+        silkRoad.placeStore(6, 20);
+        silkRoad.placeStore(12, 30);
+        silkRoad.placeRobot(1);
+        silkRoad.placeRobot(5);
+        silkRoad.placeRobot(11);
+        
+        // Cada robot recoge la tienda siguiente
+        silkRoad.moveRobot(1, 1);
+        silkRoad.moveRobot(5, 1);
+        silkRoad.moveRobot(11, 1);
+        
+        // Quita la tienda y el robot del medio
+        silkRoad.removeStore(6);
+        assertTrue(silkRoad.ok());
+        silkRoad.removeRobot(6);
+        assertTrue(silkRoad.ok());
+        
+        // Verifica que las filas siguientes se corrieron sin mezclar datos
+        assertArrayEquals(new int[][]{{2, 0}, {12, 0}}, silkRoad.stores());
+        assertArrayEquals(new int[][]{{2, 10}, {12, 30}}, silkRoad.robots());
+        assertArrayEquals(new int[][]{{10}, {30}}, silkRoad.profitPerMove());
+        
+        // Coloca otra tienda y otro robot, que van al final de las filas
+        silkRoad.placeStore(6, 40);
+        silkRoad.placeRobot(5);
+        silkRoad.moveRobot(5, 1);
+        
+        // Verifica que las filas nuevas no pisan a las corridas
+        assertArrayEquals(new int[][]{{2, 0}, {12, 0}, {6, 0}}, silkRoad.stores());
+        assertArrayEquals(new int[][]{{2, 10}, {12, 30}, {6, 40}}, silkRoad.robots());
+        assertArrayEquals(new int[][]{{10}, {30}, {40}}, silkRoad.profitPerMove());
+    }
+    
     @Test
     public void shouldHandleMaximumStoresAndRobots() {
         // Crea simulador
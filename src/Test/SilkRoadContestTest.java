@@ -1,6 +1,13 @@
 package Test;
 
 import silkroad.*;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 import org.junit.*;
 import static org.junit.Assert.*;
 
@@ -194,4 +201,199 @@ public class SilkRoadContestTest {
             assertTrue("Las ganancias deben ser no negativas", profit >= 0);
         }
     }
+    
+    /**
+     * Prueba que solve() retome el trabajo al agregar eventos después de resolver.
+     */
+    @Test
+    public void shouldSolveIncrementallyAfterNewEvents() {
+        contest = new SilkRoadContest(4);
+        contest.addEvent(0, 1, 0, 0);
+        contest.addEvent(1, 2, 10, 50);
+        
+        long[] partial = contest.solve();
+        assertEquals(40, partial[1]);
+        
+        contest.addEvent(2, 1, 100, 0);
+        contest.addEvent(3, 2, 90, 50);
+        
+        long[] profits = contest.solve();
+        
+        assertEquals(40, profits[1]);
+        assertEquals(40, profits[2]);
+        assertEquals(80, profits[3]);
+    }
+    
+    /**
+     * Prueba que el modo paralelo dé exactamente los mismos resultados que el secuencial.
+     */
+    @Test
+    public void shouldMatchSequentialResultsInParallelMode() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        Random random = new Random(7);
+        
+        try {
+            for (int round = 0; round < 50; round++) {
+                int days = 1 + random.nextInt(14);
+                SilkRoadContest parallel = new SilkRoadContest(days, pool);
+                contest = new SilkRoadContest(days);
+                
+                for (int day = 0; day < days; day++) {
+                    int type = 1 + random.nextInt(2);
+                    int location = random.nextInt(100);
+                    int tenges = type == 2 ? random.nextInt(90) : 0;
+                    parallel.addEvent(day, type, location, tenges);
+                    contest.addEvent(day, type, location, tenges);
+                }
+                
+                assertArrayEquals(contest.solve(), parallel.solve());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    /**
+     * Prueba que la resolución fuera de línea dé los mismos resultados que solve().
+     */
+    @Test
+    public void shouldSolveAllDaysOffline() {
+        contest = new SilkRoadContest(6);
+        contest.addEvent(0, 1, 20, 0);
+        contest.addEvent(1, 2, 15, 15);
+        contest.addEvent(2, 2, 40, 50);
+        contest.addEvent(3, 1, 50, 0);
+        contest.addEvent(4, 2, 80, 20);
+        contest.addEvent(5, 2, 70, 30);
+        
+        long[] profits = contest.solveOffline();
+        
+        assertArrayEquals(new long[]{0, 10, 35, 50, 50, 60}, profits);
+        for (long latency : contest.getDayLatencies()) {
+            assertTrue("Cada dia debe reportar su latencia", latency > 0);
+        }
+    }
+    
+    /**
+     * Prueba que la lectura por flujo dé el mismo resultado que la entrada en String.
+     */
+    @Test
+    public void shouldSolveSampleInputFromStream() throws IOException {
+        String input = "6\r\n" +
+                      "1 20\r\n" +
+                      "2 15 15\n" +
+                      "2 40 50\n" +
+                      "  1 50\n" +
+                      "2 80 20\n" +
+                      "2 70 30";
+        
+        long[] result = SilkRoadContest.solveFromInput(new ByteArrayInputStream(input.getBytes()));
+        
+        assertArrayEquals(new long[]{0, 10, 35, 50, 50, 60}, result);
+    }
+    
+    /**
+     * Prueba que una entrada incompleta sea rechazada.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectIncompleteStreamInput() throws IOException {
+        SilkRoadContest.solveFromInput(new ByteArrayInputStream("3\n1 20\n".getBytes()));
+    }
+    
+    /**
+     * Prueba la carga de eventos desde un archivo mapeado en memoria.
+     */
+    @Test
+    public void shouldSolveSampleInputFromMappedFile() throws IOException {
+        Path file = Files.createTempFile("silkroad-contest", ".txt");
+        try {
+            Files.write(file, "6\n1 20\n2 15 15\n2 40 50\n1 50\n2 80 20\n2 70 30\n".getBytes());
+            
+            ContestEvents events = ContestEvents.fromFile(file);
+            
+            assertEquals(6, events.getNumDays());
+            assertEquals(6, events.size());
+            assertEquals(2, events.getType(2));
+            assertEquals(40, events.getLocation(2));
+            assertEquals(50, events.getTenges(2));
+            assertArrayEquals(new long[]{0, 10, 35, 50, 50, 60}, SilkRoadContest.solveFromFile(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+    
+    /**
+     * Prueba que con presupuesto suficiente todos los días queden demostrados óptimos.
+     */
+    @Test
+    public void shouldSolveOptimallyWithinBudget() {
+        contest = new SilkRoadContest(6);
+        contest.addEvent(0, 1, 20, 0);
+        contest.addEvent(1, 2, 15, 15);
+        contest.addEvent(2, 2, 40, 50);
+        contest.addEvent(3, 1, 50, 0);
+        contest.addEvent(4, 2, 80, 20);
+        contest.addEvent(5, 2, 70, 30);
+        
+        ContestSolution solution = contest.solve(Duration.ofSeconds(10));
+        
+        assertTrue(solution.isComplete());
+        assertArrayEquals(new long[]{0, 10, 35, 50, 50, 60}, solution.getProfits());
+    }
+    
+    /**
+     * Prueba que sin presupuesto se devuelva una cota inferior sin marcarla óptima.
+     */
+    @Test
+    public void shouldReturnLowerBoundWhenBudgetExpires() {
+        contest = new SilkRoadContest(3);
+        contest.addEvent(0, 1, 10, 0);
+        contest.addEvent(1, 2, 12, 30);
+        contest.addEvent(2, 2, 5, 40);
+        
+        ContestSolution solution = contest.solve(Duration.ZERO);
+        long[] exact = contest.solve();
+        
+        for (int day = 0; day < 3; day++) {
+            assertFalse(solution.isOptimal(day));
+            assertTrue(solution.getProfit(day) <= exact[day]);
+        }
+    }
+    
+    /**
+     * Prueba que con el presupuesto ya vencido, o con el hilo interrumpido, la
+     * preparación se corte en su primera revisión: ningún día recibe cota ni
+     * queda demostrado, así que ni la cota ni el árbol se llegaron a construir.
+     */
+    @Test
+    public void shouldStopBeforeBuildingWhenBudgetIsAlreadySpent() {
+        int days = 100_000;
+        Random random = new Random(7);
+        contest = new SilkRoadContest(days);
+        for (int day = 0; day < days; day++) {
+            contest.addEvent(day, 1 + random.nextInt(2), random.nextInt(1_000_000_000), random.nextInt(1000));
+        }
+        
+        // Con el plazo vencido no se refina nada
+        assertNothingRefined(contest.solve(Duration.ZERO), days);
+        
+        // Con el hilo interrumpido tampoco, aunque sobre presupuesto
+        Thread.currentThread().interrupt();
+        try {
+            assertNothingRefined(contest.solve(Duration.ofDays(1)), days);
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+    }
+    
+    /**
+     * Verifica que ningún día tenga cota ni esté demostrado.
+     */
+    private static void assertNothingRefined(ContestSolution solution, int days) {
+        for (int day = 0; day < days; day++) {
+            assertEquals(0, solution.getProfit(day));
+            assertFalse(solution.isOptimal(day));
+        }
+    }
 }
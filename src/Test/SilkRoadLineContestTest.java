@@ -0,0 +1,124 @@
+package Test;
+
+import silkroad.*;
+import java.util.Random;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas unitarias para SilkRoadLineContest.
+ *
+ * @author Santiago Andres Gomez Rojas y Miguel Angel Sandoval
+ */
+public class SilkRoadLineContestTest {
+
+    private SilkRoadLineContest contest;
+
+    @Before
+    public void setUp() {
+        contest = null;
+    }
+
+    @After
+    public void tearDown() {
+        contest = null;
+    }
+
+    /**
+     * Prueba con el ejemplo 1 del problema de la maratón.
+     */
+    @Test
+    public void shouldSolveSampleInput1() {
+        String input = "6\n" +
+                      "1 20\n" +
+                      "2 15 15\n" +
+                      "2 40 50\n" +
+                      "1 50\n" +
+                      "2 80 20\n" +
+                      "2 70 30\n";
+
+        long[] result = SilkRoadLineContest.solveFromInput(input);
+
+        assertArrayEquals(new long[]{0, 10, 35, 50, 50, 60}, result);
+    }
+
+    /**
+     * Prueba que un robot entre dos tiendas recorra primero el lado más corto.
+     */
+    @Test
+    public void shouldSweepShorterSideFirst() {
+        contest = new SilkRoadLineContest(3);
+        contest.addEvent(0, 1, 10, 0);    // Robot en 10
+        contest.addEvent(1, 2, 8, 20);    // Tienda a 2 metros a la izquierda
+        contest.addEvent(2, 2, 30, 50);   // Tienda a 20 metros a la derecha
+
+        long[] profits = contest.solve();
+
+        assertEquals(18, profits[1]);
+        // Izquierda primero: 70 - (2 * 2 + 20) = 46
+        assertEquals(46, profits[2]);
+    }
+
+    /**
+     * Prueba que cada tienda solo puede ser visitada por un robot.
+     */
+    @Test
+    public void shouldNotAssignMultipleRobotsToSameStore() {
+        contest = new SilkRoadLineContest(3);
+        contest.addEvent(0, 1, 0, 0);
+        contest.addEvent(1, 1, 5, 0);
+        contest.addEvent(2, 2, 10, 100);
+
+        long[] profits = contest.solve();
+
+        assertEquals(95, profits[2]);
+    }
+
+    /**
+     * Prueba que ambos motores den el mismo resultado en entradas pequeñas aleatorias.
+     */
+    @Test
+    public void shouldMatchBitmaskEngineOnSmallInputs() {
+        Random random = new Random(2024);
+
+        for (int round = 0; round < 300; round++) {
+            int days = 1 + random.nextInt(12);
+            SilkRoadContest exact = new SilkRoadContest(days);
+            contest = new SilkRoadLineContest(days);
+            int stores = 0;
+
+            for (int day = 0; day < days; day++) {
+                int type = stores >= 8 ? 1 : 1 + random.nextInt(2);
+                int location = random.nextInt(40);
+                int tenges = type == 2 ? random.nextInt(60) : 0;
+                if (type == 2) stores++;
+
+                exact.addEvent(day, type, location, tenges);
+                contest.addEvent(day, type, location, tenges);
+            }
+
+            assertArrayEquals(exact.solve(), contest.solve());
+        }
+    }
+
+    /**
+     * Prueba que ambos motores acepten directamente los eventos ya cargados.
+     */
+    @Test
+    public void shouldSolveFromLoadedEvents() {
+        ContestEvents events = new ContestEvents(6);
+        events.add(0, 1, 20, 0);
+        events.add(1, 2, 15, 15);
+        events.add(2, 2, 40, 50);
+        events.add(3, 1, 50, 0);
+        events.add(4, 2, 80, 20);
+        events.add(5, 2, 70, 30);
+
+        // Ambos motores resuelven los mismos eventos sin volver a copiarlos
+        contest = new SilkRoadLineContest(events);
+        SilkRoadContest exact = new SilkRoadContest(events);
+
+        assertArrayEquals(new long[]{0, 10, 35, 50, 50, 60}, contest.solve());
+        assertArrayEquals(new long[]{0, 10, 35, 50, 50, 60}, exact.solve());
+    }
+}
@@ -0,0 +1,69 @@
+package Test;
+
+import silkroad.*;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas unitarias para SpiralGrid.
+ *
+ * @author Santiago Andres Gomez Rojas y Miguel Angel Sandoval
+ */
+public class SpiralGridTest {
+
+    private static final int CELLS = 5000;
+
+    /**
+     * Prueba que la formula cerrada coincida con recorrer la espiral paso a paso
+     * (derecha 1, abajo 1, izquierda 2, arriba 2, derecha 3...).
+     */
+    @Test
+    public void shouldMatchWalkedSpiral() {
+        int[] dx = {1, 0, -1, 0};
+        int[] dy = {0, 1, 0, -1};
+        int x = 0;
+        int y = 0;
+        int direction = 0;
+        int steps = 1;
+        int stepsTaken = 0;
+        int directionsChanged = 0;
+
+        for (int i = 0; i < CELLS; i++) {
+            // Compara la celda de la formula con la del recorrido
+            long cell = SpiralGrid.spiralCell(i);
+            assertEquals("x de la posicion " + i, x, SpiralGrid.xOf(cell));
+            assertEquals("y de la posicion " + i, y, SpiralGrid.yOf(cell));
+            assertEquals("indice de la celda " + i, i, SpiralGrid.spiralIndex(x, y));
+
+            // Avanza un paso en la espiral
+            x += dx[direction];
+            y += dy[direction];
+            stepsTaken++;
+            if (stepsTaken == steps) {
+                stepsTaken = 0;
+                direction = (direction + 1) % 4;
+                directionsChanged++;
+                if (directionsChanged % 2 == 0) {
+                    steps++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Prueba que spiralIndex sea la inversa de spiralCell.
+     */
+    @Test
+    public void shouldInvertSpiralCell() {
+        for (long i = 0; i < CELLS; i++) {
+            long cell = SpiralGrid.spiralCell(i);
+            assertEquals(i, SpiralGrid.spiralIndex(SpiralGrid.xOf(cell), SpiralGrid.yOf(cell)));
+        }
+
+        // Tambien lejos del centro, donde la raiz cuadrada pierde precision
+        for (long i = 1_000_000_000_000L; i < 1_000_000_000_000L + CELLS; i++) {
+            long cell = SpiralGrid.spiralCell(i);
+            assertEquals(i, SpiralGrid.spiralIndex(SpiralGrid.xOf(cell), SpiralGrid.yOf(cell)));
+        }
+    }
+}
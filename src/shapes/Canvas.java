@@ -8,6 +8,9 @@ import java.util.*;
  * Canvas es una clase que permite realizar dibujos gráficos simples
  * en un lienzo. 
  * Versión extendida con colores adicionales para el proyecto SilkRoad.
+ * Los cambios no se pintan en el hilo que los hace: se juntan y se pintan en el
+ * hilo de eventos de Swing, a un máximo de cuadros por segundo, repintando solo
+ * las regiones que cambiaron.
  *
  * @author  
  * Bruce Quig  
@@ -17,6 +20,9 @@ import java.util.*;
  * @version 1.1 (extendido)
  */
 public final class Canvas {
+    private static final int DEFAULT_MAX_FPS = 60;
+    private static final int MAX_DIRTY_REGIONS = 32;
+
     private static Canvas canvasSingleton;
 
     /**
@@ -39,8 +45,16 @@ public final class Canvas {
     private Graphics2D graphic;
     private Color backgroundColour;
     private Image canvasImage;
-    private List<Object> objects;
-    private HashMap<Object,ShapeDescription> shapes;
+    private final Object lock;
+    private LinkedHashMap<Object,ShapeDescription> shapes;
+    private ShapeDescription[] scene;
+    private int batchDepth;
+    private boolean pendingRedraw;
+    private List<java.awt.Rectangle> dirtyRegions;
+    private boolean fullRepaint;
+    private boolean renderScheduled;
+    private long lastRenderNanos;
+    private int maxFps;
     
     /**
      * Crea un Canvas.
@@ -57,8 +71,16 @@ public final class Canvas {
         canvas.setPreferredSize(new Dimension(width, height));
         backgroundColour = bgColour;
         frame.pack();
-        objects = Collections.synchronizedList(new ArrayList<Object>());
-        shapes = new HashMap<Object,ShapeDescription>();
+        lock = new Object();
+        shapes = new LinkedHashMap<Object,ShapeDescription>();
+        scene = new ShapeDescription[0];
+        batchDepth = 0;
+        pendingRedraw = false;
+        dirtyRegions = new ArrayList<java.awt.Rectangle>();
+        fullRepaint = true;
+        renderScheduled = false;
+        lastRenderNanos = 0;
+        maxFps = DEFAULT_MAX_FPS;
     }
 
     /**
@@ -66,38 +88,175 @@ public final class Canvas {
      * cuando se hace visible.
      */
     public void setVisible(boolean visible) {
-        if(graphic == null) {
-            Dimension size = canvas.getSize();
-            canvasImage = canvas.createImage(size.width, size.height);
-            graphic = (Graphics2D)canvasImage.getGraphics();
-            graphic.setColor(backgroundColour);
-            graphic.fillRect(0, 0, size.width, size.height);
-            graphic.setColor(Color.black);
+        synchronized(lock) {
+            if(graphic == null) {
+                Dimension size = canvas.getSize();
+                canvasImage = canvas.createImage(size.width, size.height);
+                graphic = (Graphics2D)canvasImage.getGraphics();
+                graphic.setColor(backgroundColour);
+                graphic.fillRect(0, 0, size.width, size.height);
+                graphic.setColor(Color.black);
+                fullRepaint = true;
+            }
         }
         frame.setVisible(visible);
+        requestRender();
+    }
+
+    /**
+     * Establece cuántos cuadros por segundo se pintan como máximo.
+     * Los cambios que llegan entre dos cuadros se pintan juntos en el siguiente.
+     * @param fps Cuadros por segundo; 0 o menos pinta sin límite
+     */
+    public void setMaxFps(int fps) {
+        synchronized(lock) {
+            maxFps = fps;
+        }
+    }
+
+    /**
+     * Obtiene el máximo de cuadros por segundo.
+     * @return Cuadros por segundo (0 o menos si no hay límite)
+     */
+    public int getMaxFps() {
+        synchronized(lock) {
+            return maxFps;
+        }
+    }
+
+    /**
+     * Obtiene el tamaño del área de dibujo.
+     * @return Ancho y alto del lienzo en pixels
+     */
+    public Dimension getSize() {
+        return canvas.getSize();
     }
 
     /**
      * Dibuja una forma dada en el lienzo.
      */
     public void draw(Object referenceObject, String color, Shape shape) {
-        synchronized(objects) {
-            objects.remove(referenceObject);
-            objects.add(referenceObject);
+        ShapeDescription description = new ShapeDescription(shape, color);
+        synchronized(lock) {
+            // Quitar y volver a poner lo deja encima de los demás, en O(1)
+            ShapeDescription previous = shapes.remove(referenceObject);
+            shapes.put(referenceObject, description);
+            scene = null;
+            if (previous != null) {
+                markDirty(previous.bounds);
+            }
+            markDirty(description.bounds);
         }
-        shapes.put(referenceObject, new ShapeDescription(shape, color));
-        redraw();
+        requestRender();
     }
  
     /**
      * Borra del lienzo la forma asociada al objeto dado.
      */
     public void erase(Object referenceObject) {
-        synchronized(objects) {
-            objects.remove(referenceObject);
+        synchronized(lock) {
+            ShapeDescription previous = shapes.remove(referenceObject);
+            if (previous == null) {
+                return;
+            }
+            scene = null;
+            markDirty(previous.bounds);
+        }
+        requestRender();
+    }
+
+    /**
+     * Empieza un lote de cambios: mientras dure, draw y erase solo actualizan
+     * las formas y el lienzo se redibuja una sola vez en commitBatch.
+     * Los lotes pueden anidarse; solo el más externo redibuja.
+     */
+    public void beginBatch() {
+        synchronized(lock) {
+            batchDepth++;
+        }
+    }
+
+    /**
+     * Termina un lote de cambios y pide un cuadro si hubo cambios y era el más externo.
+     */
+    public void commitBatch() {
+        boolean redrawNow;
+        synchronized(lock) {
+            if (batchDepth == 0) {
+                return;
+            }
+            batchDepth--;
+            redrawNow = batchDepth == 0 && pendingRedraw;
+            if (redrawNow) {
+                pendingRedraw = false;
+            }
+        }
+        if (redrawNow) {
+            requestRender();
+        }
+    }
+
+    /**
+     * Indica si hay un lote de cambios abierto.
+     * @return true si los redibujos se están agrupando
+     */
+    public boolean isBatching() {
+        synchronized(lock) {
+            return batchDepth > 0;
+        }
+    }
+
+    /**
+     * Agrega una región a repintar. Las regiones que se tocan se unen, y si hay
+     * demasiadas se repinta todo el lienzo.
+     * Se llama con el candado tomado.
+     */
+    private void markDirty(java.awt.Rectangle region) {
+        if (fullRepaint || region.isEmpty()) {
+            return;
+        }
+        for (java.awt.Rectangle dirty : dirtyRegions) {
+            if (dirty.intersects(region)) {
+                dirty.add(region);
+                return;
+            }
+        }
+        if (dirtyRegions.size() == MAX_DIRTY_REGIONS) {
+            dirtyRegions.clear();
+            fullRepaint = true;
+            return;
+        }
+        dirtyRegions.add(new java.awt.Rectangle(region));
+    }
+
+    /**
+     * Programa un cuadro en el hilo de eventos de Swing, sin pasar del máximo de
+     * cuadros por segundo. Si ya hay uno programado, ese cuadro pinta también
+     * estos cambios. Dentro de un lote solo deja pendiente el cuadro.
+     */
+    private void requestRender() {
+        long delayNanos;
+        synchronized(lock) {
+            if (batchDepth > 0) {
+                pendingRedraw = true;
+                return;
+            }
+            if (renderScheduled) {
+                return;
+            }
+            renderScheduled = true;
+            delayNanos = maxFps <= 0 ? 0
+                : lastRenderNanos + 1_000_000_000L / maxFps - System.nanoTime();
+        }
+
+        int delayMillis = (int) (delayNanos / 1_000_000);
+        if (delayMillis > 0) {
+            javax.swing.Timer timer = new javax.swing.Timer(delayMillis, e -> render());
+            timer.setRepeats(false);
+            timer.start();
+        } else {
+            SwingUtilities.invokeLater(this::render);
         }
-        shapes.remove(referenceObject);
-        redraw();
     }
 
     /**
@@ -165,32 +324,58 @@ public final class Canvas {
     }
 
     /**
-     * Redibuja todas las formas que actualmente están en el lienzo.
+     * Pinta un cuadro (en el hilo de eventos de Swing): para cada región sucia
+     * borra el fondo y vuelve a dibujar, en orden, solo las formas que la tocan.
      */
-    private void redraw() {
-        erase();
-        synchronized(objects) {
-            // Crear una copia para evitar ConcurrentModificationException
-            List<Object> objectsCopy = new ArrayList<>(objects);
-            for(Object obj : objectsCopy) {
-                ShapeDescription desc = shapes.get(obj);
-                if(desc != null) {
+    private void render() {
+        List<java.awt.Rectangle> regions;
+        ShapeDescription[] frame;
+        synchronized(lock) {
+            renderScheduled = false;
+            lastRenderNanos = System.nanoTime();
+            if (graphic == null) {
+                return;
+            }
+            if (fullRepaint) {
+                Dimension size = canvas.getSize();
+                regions = Collections.singletonList(
+                    new java.awt.Rectangle(0, 0, size.width, size.height));
+                fullRepaint = false;
+            } else {
+                regions = new ArrayList<>(dirtyRegions);
+            }
+            dirtyRegions.clear();
+            frame = publishScene();
+        }
+
+        Shape clip = graphic.getClip();
+        for (java.awt.Rectangle region : regions) {
+            graphic.setClip(region);
+            Color original = graphic.getColor();
+            graphic.setColor(backgroundColour);
+            graphic.fill(region);
+            graphic.setColor(original);
+            for (ShapeDescription desc : frame) {
+                if (desc.bounds.intersects(region)) {
                     desc.draw(graphic);
                 }
             }
+            canvas.repaint(region);
         }
-        canvas.repaint();
+        graphic.setClip(clip);
     }
-       
+
     /**
-     * Borra todo el contenido del lienzo. (No repinta).
+     * Obtiene la escena en orden de dibujo (la última forma queda encima).
+     * El arreglo no se modifica nunca: solo se arma de nuevo, una vez, cuando la
+     * escena cambió desde el último cuadro, así que se pinta sin copiar ni bloquear.
+     * Se llama con el candado tomado.
      */
-    private void erase() {
-        Color original = graphic.getColor();
-        graphic.setColor(backgroundColour);
-        Dimension size = canvas.getSize();
-        graphic.fill(new java.awt.Rectangle(0, 0, size.width, size.height));
-        graphic.setColor(original);
+    private ShapeDescription[] publishScene() {
+        if (scene == null) {
+            scene = shapes.values().toArray(new ShapeDescription[shapes.size()]);
+        }
+        return scene;
     }
 
     /************************************************************************
@@ -212,10 +397,14 @@ public final class Canvas {
     private class ShapeDescription {
         private Shape shape;
         private String colorString;
+        private java.awt.Rectangle bounds;
 
         public ShapeDescription(Shape shape, String color) {
             this.shape = shape;
             colorString = color;
+            // El borde puede salirse un pixel de los límites de la forma
+            bounds = shape.getBounds();
+            bounds.grow(1, 1);
         }
 
         public void draw(Graphics2D graphic) {
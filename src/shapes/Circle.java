@@ -84,7 +84,9 @@ public class Circle {
             canvas.draw(this, color, 
                 new Ellipse2D.Double(xPosition, yPosition, 
                 diameter, diameter));
-            canvas.wait(10);
+            if (!canvas.isBatching()) {
+                canvas.wait(10);
+            }
         }
     }
     
@@ -195,7 +195,9 @@ public class Rectangle{
             canvas.draw(this, color,
                 new java.awt.Rectangle(xPosition, yPosition, 
                                        width, height));
-            canvas.wait(10);
+            if (!canvas.isBatching()) {
+                canvas.wait(10);
+            }
         }
     }
 
@@ -166,7 +166,9 @@ import java.awt.*;
                 int[] xpoints = { xPosition, xPosition + (width/2), xPosition - (width/2) };
                 int[] ypoints = { yPosition, yPosition + height, yPosition + height };
                 canvas.draw(this, color, new Polygon(xpoints, ypoints, 3));
-                canvas.wait(10);
+                if (!canvas.isBatching()) {
+                    canvas.wait(10);
+                }
             }
         }
     
@@ -0,0 +1,163 @@
+package silkroad;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+/**
+ * Planificador unico de las animaciones del simulador (como el parpadeo de robots).
+ * Todas las animaciones corren en un solo hilo daemon en lugar de un hilo por
+ * llamada. Cada efecto tiene una clave (por ejemplo el robot): pedir otro efecto con
+ * una clave que ya esta animandose solo alarga el que existe, y nunca hay mas de
+ * MAX_EFFECTS efectos a la vez.
+ *
+ * Cada paso corre con el candado de su efecto, que cancel tambien toma: cuando
+ * cancel termina ningun paso de ese efecto esta corriendo ni volvera a correr, asi
+ * que el dueño puede dejar su dibujo como quiera sin que un paso atrasado lo cambie.
+ *
+ * @author Santiago Andres Gomez Rojas y Miguel Angel Sandoval
+ */
+final class AnimationScheduler {
+    /** Maximo de efectos animandose a la vez; los pedidos de mas se descartan. */
+    static final int MAX_EFFECTS = 64;
+
+    private static final AnimationScheduler SHARED = new AnimationScheduler();
+
+    private final ScheduledExecutorService executor;
+    private final Map<Object, Effect> effects;
+
+    private AnimationScheduler() {
+        this.executor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "silkroad-animation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.effects = new HashMap<>();
+    }
+
+    /**
+     * Obtiene el planificador compartido.
+     * @return Planificador de animaciones
+     */
+    static AnimationScheduler shared() {
+        return SHARED;
+    }
+
+    /**
+     * Programa un efecto que ejecuta steps pasos, uno cada periodo, empezando ya.
+     * Si la clave ya tiene un efecto activo, ese efecto se alarga para durar al
+     * menos steps pasos mas (conservando la paridad del total, porque los efectos
+     * suelen alternar dos estados) en lugar de crear otro.
+     * @param key Objeto animado
+     * @param steps Numero de pasos (> 0)
+     * @param periodMillis Milisegundos entre pasos
+     * @param step Accion de cada paso; recibe el indice del paso desde 0
+     * @return true si el efecto quedo programado, false si se alcanzo el maximo
+     */
+    synchronized boolean play(Object key, int steps, long periodMillis, IntConsumer step) {
+        if (steps <= 0) {
+            return false;
+        }
+        Effect running = effects.get(key);
+        if (running != null) {
+            int total = running.done + steps;
+            if (((total - running.total) & 1) != 0) {
+                total++;
+            }
+            running.total = Math.max(running.total, total);
+            return true;
+        }
+        if (effects.size() >= MAX_EFFECTS) {
+            return false;
+        }
+
+        Effect effect = new Effect(key, steps, step);
+        effects.put(key, effect);
+        // El paso no puede correr antes de asignar future: necesita este candado
+        effect.future = executor.scheduleAtFixedRate(() -> run(effect), 0, periodMillis,
+            TimeUnit.MILLISECONDS);
+        return true;
+    }
+
+    /**
+     * Detiene el efecto de una clave, si tiene uno. Si un paso esta corriendo espera
+     * a que termine, y despues de volver ningun paso del efecto vuelve a correr.
+     * @param key Objeto animado
+     */
+    void cancel(Object key) {
+        Effect effect;
+        synchronized (this) {
+            effect = effects.remove(key);
+        }
+        if (effect != null) {
+            stop(effect);
+        }
+    }
+
+    /**
+     * Obtiene cuantos efectos estan activos.
+     * @return Numero de efectos programados que no han terminado
+     */
+    synchronized int activeEffects() {
+        return effects.size();
+    }
+
+    private void run(Effect effect) {
+        synchronized (effect) {
+            if (effect.cancelled) {
+                return;
+            }
+            int index;
+            synchronized (this) {
+                index = effect.done++;
+                if (effect.done >= effect.total) {
+                    effects.remove(effect.key);
+                    effect.cancelled = true;
+                    effect.future.cancel(false);
+                }
+            }
+            try {
+                effect.step.accept(index);
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    effects.remove(effect.key, effect);
+                }
+                stop(effect);
+            }
+        }
+    }
+
+    /**
+     * Marca un efecto como cancelado con su candado tomado, esperando al paso en curso.
+     */
+    private void stop(Effect effect) {
+        synchronized (effect) {
+            effect.cancelled = true;
+            effect.future.cancel(false);
+        }
+    }
+
+    /**
+     * Estado de un efecto: cuantos pasos lleva y cuantos debe dar.
+     */
+    private static final class Effect {
+        private final Object key;
+        private final IntConsumer step;
+        private int done;
+        private int total;
+        private ScheduledFuture<?> future;
+        private boolean cancelled;
+
+        Effect(Object key, int total, IntConsumer step) {
+            this.key = key;
+            this.total = total;
+            this.step = step;
+            this.done = 0;
+            this.cancelled = false;
+        }
+    }
+}
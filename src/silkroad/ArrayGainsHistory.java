@@ -0,0 +1,82 @@
+package silkroad;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Historial de ganancias de un robot guardado en un arreglo de int.
+ * Agregar no crea objetos (el arreglo crece al doble cuando se llena) y el
+ * historial se puede leer sin copiarlo con una vista de solo lectura.
+ *
+ * @author Santiago Andres Gomez Rojas y Miguel Angel Sandoval
+ */
+public class ArrayGainsHistory extends GainsHistory {
+    private static final int INITIAL_CAPACITY = 8;
+
+    private int[] values;
+    private int size;
+
+    /**
+     * Crea un historial vacio.
+     */
+    public ArrayGainsHistory() {
+        this.values = new int[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    @Override
+    public void add(int gain) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+        }
+        values[size++] = gain;
+    }
+
+    @Override
+    public int get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Movimiento fuera de rango: " + index);
+        }
+        return values[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Obtiene una vista de solo lectura del historial, sin copiarlo.
+     * @return Buffer con una ganancia por movimiento, de la posicion 0 a size() - 1
+     */
+    @Override
+    public IntBuffer view() {
+        return IntBuffer.wrap(values, 0, size).slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * Copia el historial a un arreglo con System.arraycopy.
+     * @param destination Arreglo destino (debe tener espacio para size() valores)
+     * @param offset Posicion del primer movimiento en destination
+     */
+    @Override
+    public void copyTo(int[] destination, int offset) {
+        System.arraycopy(values, 0, destination, offset, size);
+    }
+
+    @Override
+    public List<Integer> toList() {
+        List<Integer> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(values[i]);
+        }
+        return list;
+    }
+}
@@ -24,13 +24,27 @@ public class AutonomousStore extends Store {
         this.requestedLocation = requestedLocation;
     }
     
+    /**
+     * Crea una tienda autonoma con su fila en la tabla del simulador, en una
+     * ubicacion ya elegida con selectAutonomousLocation.
+     * @param owner Simulador dueño
+     * @param requestedLocation Ubicacion solicitada
+     * @param location Ubicacion elegida autonomamente
+     * @param tenges Cantidad inicial de dinero
+     * @param color Color de la tienda
+     */
+    AutonomousStore(SilkRoad owner, int requestedLocation, int location, int tenges, String color) {
+        super(owner, location, tenges, color, 0, 0);
+        this.requestedLocation = requestedLocation;
+    }
+    
     /**
      * Selecciona una ubicacion autonoma cerca de la solicitada.
      * @param requested Ubicacion solicitada
      * @param roadLength Longitud de la ruta
      * @return Ubicacion seleccionada autonomamente
      */
-    private static int selectAutonomousLocation(int requested, int roadLength) {
+    static int selectAutonomousLocation(int requested, int roadLength) {
         int offset = random.nextInt(11) - 5;
         int selected = requested + offset;
         return Math.max(0, Math.min(selected, roadLength - 1));
@@ -0,0 +1,194 @@
+package silkroad;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * Historial de ganancias comprimido para simulaciones muy largas.
+ * Las ganancias suelen ser ceros o valores pequeños repetidos, asi que se guardan
+ * como corridas (valor, repeticiones) codificadas en varint (el valor en zigzag,
+ * para que los negativos pequeños tambien ocupen poco) dentro de un arreglo de bytes.
+ *
+ * Agregar cuesta O(1): la corrida en curso solo se codifica cuando llega un valor
+ * distinto. Las corridas se agrupan en bloques de RUNS_PER_BLOCK con su primer
+ * movimiento y su primer byte, asi que get busca el bloque y decodifica solo ese.
+ * Copiar el historial completo es un solo recorrido secuencial. Cada lectura lleva
+ * su propia posicion en los bytes, asi que leer no modifica el historial.
+ *
+ * @author Santiago Andres Gomez Rojas y Miguel Angel Sandoval
+ */
+public class CompactGainsHistory extends GainsHistory {
+    private static final int RUNS_PER_BLOCK = 64;
+
+    private byte[] bytes;
+    private int byteCount;
+    private int[] blockStart;
+    private int[] blockOffset;
+    private int blocks;
+    private int runsInBlock;
+    private int encodedMoves;
+    private int runValue;
+    private int runLength;
+
+    /**
+     * Crea un historial comprimido vacio.
+     */
+    public CompactGainsHistory() {
+        this.bytes = new byte[64];
+        this.blockStart = new int[4];
+        this.blockOffset = new int[4];
+        clear();
+    }
+
+    @Override
+    public void add(int gain) {
+        if (runLength > 0 && gain == runValue) {
+            runLength++;
+            return;
+        }
+        if (runLength > 0) {
+            encodeRun();
+        }
+        runValue = gain;
+        runLength = 1;
+    }
+
+    @Override
+    public int get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Movimiento fuera de rango: " + index);
+        }
+        if (index >= encodedMoves) {
+            return runValue;
+        }
+
+        // Ultimo bloque que empieza en o antes de index
+        int low = 0;
+        int high = blocks - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (blockStart[middle] <= index) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+
+        int position = blockOffset[low];
+        int move = blockStart[low];
+        while (true) {
+            long value = readVarint(position);
+            long count = readVarint(nextPosition(value));
+            position = nextPosition(count);
+            move += (int) count;
+            if (index < move) {
+                return zigzagDecode((int) value);
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return encodedMoves + runLength;
+    }
+
+    @Override
+    public void clear() {
+        byteCount = 0;
+        blocks = 0;
+        runsInBlock = 0;
+        encodedMoves = 0;
+        runValue = 0;
+        runLength = 0;
+    }
+
+    /**
+     * Obtiene una vista de solo lectura del historial.
+     * A diferencia del historial sin comprimir, la vista es una copia decodificada.
+     * @return Buffer con una ganancia por movimiento
+     */
+    @Override
+    public IntBuffer view() {
+        int[] values = new int[size()];
+        copyTo(values, 0);
+        return IntBuffer.wrap(values).asReadOnlyBuffer();
+    }
+
+    @Override
+    public void copyTo(int[] destination, int offset) {
+        if (destination.length - offset < size()) {
+            throw new IndexOutOfBoundsException("El destino no tiene espacio para " + size() + " movimientos");
+        }
+        int position = 0;
+        int move = offset;
+        while (position < byteCount) {
+            long value = readVarint(position);
+            long count = readVarint(nextPosition(value));
+            position = nextPosition(count);
+            Arrays.fill(destination, move, move + (int) count, zigzagDecode((int) value));
+            move += (int) count;
+        }
+        Arrays.fill(destination, move, move + runLength, runValue);
+    }
+
+    /**
+     * Obtiene cuantos bytes ocupan las corridas codificadas.
+     * @return Bytes usados (sin contar la corrida en curso)
+     */
+    public int encodedBytes() {
+        return byteCount;
+    }
+
+    private void encodeRun() {
+        if (runsInBlock == 0) {
+            if (blocks == blockStart.length) {
+                blockStart = Arrays.copyOf(blockStart, blocks * 2);
+                blockOffset = Arrays.copyOf(blockOffset, blocks * 2);
+            }
+            blockStart[blocks] = encodedMoves;
+            blockOffset[blocks] = byteCount;
+            blocks++;
+        }
+        writeVarint((runValue << 1) ^ (runValue >> 31));
+        writeVarint(runLength);
+        encodedMoves += runLength;
+        runsInBlock = (runsInBlock + 1) % RUNS_PER_BLOCK;
+    }
+
+    private void writeVarint(int value) {
+        // Un int ocupa a lo sumo 5 bytes de 7 bits
+        if (bytes.length - byteCount < 5) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, byteCount + 5));
+        }
+        while ((value & ~0x7F) != 0) {
+            bytes[byteCount++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[byteCount++] = (byte) value;
+    }
+
+    /**
+     * Lee un varint sin guardar estado.
+     * @param position Byte donde empieza
+     * @return El valor en los 32 bits bajos y la posicion del siguiente byte en los altos
+     */
+    private long readVarint(int position) {
+        int value = 0;
+        int shift = 0;
+        byte current;
+        do {
+            current = bytes[position++];
+            value |= (current & 0x7F) << shift;
+            shift += 7;
+        } while (current < 0);
+        return ((long) position << 32) | (value & 0xFFFFFFFFL);
+    }
+
+    private static int nextPosition(long varint) {
+        return (int) (varint >>> 32);
+    }
+
+    private static int zigzagDecode(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
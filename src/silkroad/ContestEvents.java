@@ -0,0 +1,172 @@
+package silkroad;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Eventos de la maratón guardados en columnas de enteros primitivos
+ * (día, tipo, ubicación, tenges), sin un objeto por evento.
+ * Puede cargarse desde un archivo mapeado en memoria por ventanas, lo que permite
+ * leer archivos de varios GB sin pasar por un String.
+ *
+ * @author Santiago Andres Gomez Rojas y Miguel Angel Sandoval
+ */
+public class ContestEvents {
+    private static final int INITIAL_CAPACITY = 1 << 10;
+    private static final int MAX_INITIAL_CAPACITY = 1 << 20;
+    private static final long MAP_WINDOW = 1L << 30;
+    private static final int READ_BUFFER_SIZE = 1 << 16;
+
+    private int numDays;
+    private int[] days;
+    private int[] types;
+    private int[] locations;
+    private int[] tenges;
+    private int size;
+
+    /**
+     * Crea un conjunto de eventos vacío.
+     * @param numDays Número de días del problema
+     */
+    public ContestEvents(int numDays) {
+        int capacity = Math.max(INITIAL_CAPACITY, Math.min(numDays, MAX_INITIAL_CAPACITY));
+        this.numDays = numDays;
+        this.days = new int[capacity];
+        this.types = new int[capacity];
+        this.locations = new int[capacity];
+        this.tenges = new int[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * Carga los eventos de un archivo en formato de la maratón.
+     * El archivo se mapea en memoria por ventanas de 1 GB, así que no hay límite de 2 GB,
+     * y los enteros se leen directamente de las páginas mapeadas.
+     * @param file Archivo con la entrada de la maratón
+     * @return Eventos leídos
+     * @throws IOException si falla la lectura
+     * @throws IllegalArgumentException si el contenido es inválido
+     */
+    public static ContestEvents fromFile(Path file) throws IOException {
+        ContestInputParser parser = new ContestInputParser();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            for (long position = 0; position < fileSize; position += MAP_WINDOW) {
+                long windowSize = Math.min(MAP_WINDOW, fileSize - position);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, windowSize);
+                parser.feed(window);
+            }
+        }
+        return parser.finish();
+    }
+
+    /**
+     * Carga los eventos desde un canal en formato de la maratón.
+     * @param channel Canal con la entrada
+     * @return Eventos leídos
+     * @throws IOException si falla la lectura
+     * @throws IllegalArgumentException si el contenido es inválido
+     */
+    public static ContestEvents fromChannel(ReadableByteChannel channel) throws IOException {
+        ContestInputParser parser = new ContestInputParser();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+
+        while (channel.read(buffer) != -1) {
+            buffer.flip();
+            parser.feed(buffer);
+            buffer.clear();
+        }
+        return parser.finish();
+    }
+
+    /**
+     * Agrega un evento al final de las columnas.
+     * @param day Número de día (0-indexed)
+     * @param type Tipo: 1=robot, 2=tienda
+     * @param location Ubicación en la ruta
+     * @param amount Cantidad de tenges (solo para tiendas)
+     */
+    public void add(int day, int type, int location, int amount) {
+        if (size == days.length) {
+            int capacity = days.length * 2;
+            days = Arrays.copyOf(days, capacity);
+            types = Arrays.copyOf(types, capacity);
+            locations = Arrays.copyOf(locations, capacity);
+            tenges = Arrays.copyOf(tenges, capacity);
+        }
+        days[size] = day;
+        types[size] = type;
+        locations[size] = location;
+        tenges[size] = amount;
+        size++;
+    }
+
+    /**
+     * Obtiene el número de días del problema.
+     * @return Número de días
+     */
+    public int getNumDays() {
+        return numDays;
+    }
+
+    /**
+     * Obtiene la cantidad de eventos.
+     * @return Número de eventos
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Obtiene el día de un evento.
+     * @param index Índice del evento
+     * @return Día del evento
+     */
+    public int getDay(int index) {
+        return days[index];
+    }
+
+    /**
+     * Obtiene el tipo de un evento.
+     * @param index Índice del evento
+     * @return Tipo: 1=robot, 2=tienda
+     */
+    public int getType(int index) {
+        return types[index];
+    }
+
+    /**
+     * Obtiene la ubicación de un evento.
+     * @param index Índice del evento
+     * @return Ubicación en la ruta
+     */
+    public int getLocation(int index) {
+        return locations[index];
+    }
+
+    /**
+     * Copia las ubicaciones de un rango de eventos a las mismas posiciones de otro array.
+     * @param from Primer evento a copiar
+     * @param to Evento siguiente al último a copiar
+     * @param target Array de destino (al menos de tamaño to)
+     */
+    void copyLocations(int from, int to, int[] target) {
+        System.arraycopy(locations, from, target, from, to - from);
+    }
+
+    /**
+     * Obtiene los tenges de un evento.
+     * @param index Índice del evento
+     * @return Cantidad de tenges (0 para robots)
+     */
+    public int getTenges(int index) {
+        return tenges[index];
+    }
+}
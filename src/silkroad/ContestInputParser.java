@@ -0,0 +1,134 @@
+package silkroad;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Lector incremental de la entrada de la maratón.
+ * Recibe la entrada en bloques de bytes (de un buffer o de una ventana mapeada),
+ * arma los enteros directamente desde los bytes (sin crear un String por token) y
+ * agrega cada evento a las columnas en cuanto termina su línea. Los bloques pueden
+ * cortar un número o una línea en cualquier punto.
+ *
+ * Formato: una primera línea con n y luego n líneas "tipo ubicación [tenges]".
+ *
+ * @author Santiago Andres Gomez Rojas y Miguel Angel Sandoval
+ */
+class ContestInputParser {
+    private static final int MAX_TOKENS = 3;
+
+    private ContestEvents events;
+    private int numDays;
+    private int day;
+    private final long[] tokens = new long[MAX_TOKENS];
+    private int tokenCount;
+    private long number;
+    private boolean negative;
+    private boolean inNumber;
+
+    /**
+     * Crea un lector vacío.
+     */
+    ContestInputParser() {
+        this.events = null;
+        this.numDays = 0;
+        this.day = 0;
+    }
+
+    /**
+     * Procesa todos los bytes disponibles en el buffer.
+     * @param buffer Bloque de la entrada (entre position y limit)
+     * @throws IllegalArgumentException si encuentra un carácter inválido
+     */
+    void feed(ByteBuffer buffer) {
+        while (buffer.hasRemaining()) {
+            byte b = buffer.get();
+
+            if (b >= '0' && b <= '9') {
+                number = number * 10 + (b - '0');
+                inNumber = true;
+                if (number > (long) Integer.MAX_VALUE + 1) {
+                    throw new IllegalArgumentException("Error al parsear entrada: numero fuera de rango");
+                }
+            } else if (b == '-' && !inNumber && !negative) {
+                negative = true;
+            } else if (b == '\n') {
+                endToken();
+                endLine();
+            } else if (b == ' ' || b == '\t' || b == '\r') {
+                endToken();
+            } else {
+                throw new IllegalArgumentException("Error al parsear entrada: caracter invalido '" +
+                                                   (char) b + "'");
+            }
+        }
+    }
+
+    /**
+     * Cierra la última línea y devuelve todos los eventos leídos.
+     * @return Eventos en columnas
+     * @throws IllegalArgumentException si la entrada está vacía o incompleta
+     */
+    ContestEvents finish() {
+        endToken();
+        endLine();
+
+        if (events == null) {
+            throw new IllegalArgumentException("Error al parsear entrada: entrada vacia");
+        }
+        if (day < numDays) {
+            throw new IllegalArgumentException("Error al parsear entrada: se esperaban " + numDays +
+                                               " eventos y hay " + day);
+        }
+        return events;
+    }
+
+    private void endToken() {
+        if (!inNumber) {
+            if (negative) {
+                throw new IllegalArgumentException("Error al parsear entrada: signo sin numero");
+            }
+            return;
+        }
+        if (tokenCount < MAX_TOKENS) {
+            tokens[tokenCount] = negative ? -number : number;
+        }
+        tokenCount++;
+        number = 0;
+        negative = false;
+        inNumber = false;
+    }
+
+    private void endLine() {
+        if (tokenCount == 0) {
+            return;
+        }
+
+        if (events == null) {
+            numDays = toInt(tokens[0]);
+            events = new ContestEvents(numDays);
+        } else if (day < numDays) {
+            if (tokenCount < 2) {
+                throw new IllegalArgumentException("Error al parsear entrada: linea " + (day + 2) +
+                                                   " incompleta");
+            }
+            int type = toInt(tokens[0]);
+            int location = toInt(tokens[1]);
+            int tenges = 0;
+
+            if (type == 2 && tokenCount > 2) {
+                tenges = toInt(tokens[2]);
+            }
+
+            events.add(day, type, location, tenges);
+            day++;
+        }
+        tokenCount = 0;
+    }
+
+    private static int toInt(long value) {
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Error al parsear entrada: numero fuera de rango " + value);
+        }
+        return (int) value;
+    }
+}
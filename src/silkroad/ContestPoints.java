@@ -0,0 +1,134 @@
+package silkroad;
+
+import java.util.Arrays;
+
+/**
+ * Robots y tiendas de un día de la maratón en arreglos primitivos ordenados por ubicación.
+ * Las tiendas con la misma ubicación conservan su orden de llegada.
+ *
+ * @author Santiago Andres Gomez Rojas y Miguel Angel Sandoval
+ */
+class ContestPoints {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] robotLocations;
+    private int robotCount;
+    private int[] storeLocations;
+    private int[] storeTenges;
+    private int storeCount;
+
+    /**
+     * Crea un conjunto vacío.
+     */
+    ContestPoints() {
+        this.robotLocations = new int[INITIAL_CAPACITY];
+        this.robotCount = 0;
+        this.storeLocations = new int[INITIAL_CAPACITY];
+        this.storeTenges = new int[INITIAL_CAPACITY];
+        this.storeCount = 0;
+    }
+
+    /**
+     * Vacía el conjunto conservando la capacidad reservada.
+     */
+    void clear() {
+        robotCount = 0;
+        storeCount = 0;
+    }
+
+    /**
+     * Agrega un robot manteniendo el orden por ubicación.
+     * @param location Ubicación del robot
+     * @return Índice del robot en el orden por ubicación
+     */
+    int addRobot(int location) {
+        if (robotCount == robotLocations.length) {
+            robotLocations = Arrays.copyOf(robotLocations, robotCount * 2);
+        }
+        int index = insertionPoint(robotLocations, robotCount, location);
+        System.arraycopy(robotLocations, index, robotLocations, index + 1, robotCount - index);
+        robotLocations[index] = location;
+        robotCount++;
+        return index;
+    }
+
+    /**
+     * Agrega una tienda manteniendo el orden por ubicación.
+     * @param location Ubicación de la tienda
+     * @param tenges Dinero de la tienda
+     * @return Índice de la tienda en el orden por ubicación
+     */
+    int addStore(int location, int tenges) {
+        if (storeCount == storeLocations.length) {
+            storeLocations = Arrays.copyOf(storeLocations, storeCount * 2);
+            storeTenges = Arrays.copyOf(storeTenges, storeCount * 2);
+        }
+        int index = insertionPoint(storeLocations, storeCount, location);
+        System.arraycopy(storeLocations, index, storeLocations, index + 1, storeCount - index);
+        System.arraycopy(storeTenges, index, storeTenges, index + 1, storeCount - index);
+        storeLocations[index] = location;
+        storeTenges[index] = tenges;
+        storeCount++;
+        return index;
+    }
+
+    /**
+     * Obtiene la cantidad de robots.
+     * @return Número de robots
+     */
+    int robotCount() {
+        return robotCount;
+    }
+
+    /**
+     * Obtiene la ubicación de un robot.
+     * @param index Índice en el orden por ubicación
+     * @return Ubicación del robot
+     */
+    int robotLocation(int index) {
+        return robotLocations[index];
+    }
+
+    /**
+     * Obtiene la cantidad de tiendas.
+     * @return Número de tiendas
+     */
+    int storeCount() {
+        return storeCount;
+    }
+
+    /**
+     * Obtiene la ubicación de una tienda.
+     * @param index Índice en el orden por ubicación
+     * @return Ubicación de la tienda
+     */
+    int storeLocation(int index) {
+        return storeLocations[index];
+    }
+
+    /**
+     * Obtiene el dinero de una tienda.
+     * @param index Índice en el orden por ubicación
+     * @return Tenges de la tienda
+     */
+    int storeTenges(int index) {
+        return storeTenges[index];
+    }
+
+    /**
+     * Primer índice cuya ubicación es mayor que location (después de los empates).
+     */
+    private static int insertionPoint(int[] locations, int count, int location) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (locations[middle] <= location) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
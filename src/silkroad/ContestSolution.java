@@ -0,0 +1,62 @@
+package silkroad;
+
+/**
+ * Resultado de una resolución con presupuesto de tiempo.
+ * Guarda la ganancia de cada día y si ese valor está demostrado óptimo; los días
+ * no demostrados tienen una cota inferior alcanzable (nunca sobrestiman).
+ *
+ * @author Santiago Andres Gomez Rojas y Miguel Angel Sandoval
+ */
+public class ContestSolution {
+    private final long[] profits;
+    private final boolean[] optimal;
+
+    /**
+     * Crea un resultado.
+     * @param profits Ganancia de cada día
+     * @param optimal Si la ganancia de cada día es óptima
+     */
+    ContestSolution(long[] profits, boolean[] optimal) {
+        this.profits = profits;
+        this.optimal = optimal;
+    }
+
+    /**
+     * Obtiene las ganancias de todos los días.
+     * @return Array con la ganancia de cada día
+     */
+    public long[] getProfits() {
+        return profits.clone();
+    }
+
+    /**
+     * Obtiene la ganancia de un día.
+     * @param day Número de día (0-indexed)
+     * @return Ganancia del día
+     */
+    public long getProfit(int day) {
+        return profits[day];
+    }
+
+    /**
+     * Indica si la ganancia de un día está demostrada óptima.
+     * @param day Número de día (0-indexed)
+     * @return true si es la ganancia máxima exacta
+     */
+    public boolean isOptimal(int day) {
+        return optimal[day];
+    }
+
+    /**
+     * Indica si todos los días quedaron demostrados óptimos.
+     * @return true si la solución es exacta
+     */
+    public boolean isComplete() {
+        for (boolean exact : optimal) {
+            if (!exact) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
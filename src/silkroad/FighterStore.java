@@ -20,9 +20,22 @@ public class FighterStore extends Store {
         super(location, tenges, color, x, y);
     }
     
+    /**
+     * Crea una tienda luchadora con su fila en la tabla del simulador.
+     * @param owner Simulador dueño
+     * @param location Posicion de la tienda en la ruta
+     * @param tenges Cantidad inicial de dinero
+     * @param color Color de la tienda
+     * @param x Coordenada X visual
+     * @param y Coordenada Y visual
+     */
+    FighterStore(SilkRoad owner, int location, int tenges, String color, int x, int y) {
+        super(owner, location, tenges, color, x, y);
+    }
+    
     @Override
     public boolean canRobotTake(Robot robot) {
-        return robot.getTotalGain() > this.tenges;
+        return robot.getTotalGain() > getTenges();
     }
     
     @Override
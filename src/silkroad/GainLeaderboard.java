@@ -0,0 +1,185 @@
+package silkroad;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Clasificacion de los robots del simulador por ganancia total.
+ * Como entre reinicios las ganancias solo suben, el lider se mantiene comparando
+ * en O(1) cada robot que gana contra el lider actual, sin reservar memoria.
+ *
+ * Los robots con ganancia positiva estan ademas en un arbol ordenado por (ganancia
+ * de mayor a menor, orden de llegada), que se pone al dia de forma perezosa: cada
+ * robot que gana solo se anota como pendiente (una vez, aunque gane muchas veces) y
+ * el arbol reubica a los pendientes en O(log n) cada uno la siguiente vez que se
+ * necesita, al pedir los k mejores o cuando sale el lider. Los robots en 0 van
+ * despues, en orden de llegada, que es el orden de las filas de la tabla.
+ * En empate gana el robot colocado primero.
+ *
+ * @author Santiago Andres Gomez Rojas y Miguel Angel Sandoval
+ */
+class GainLeaderboard {
+    private final RobotTable robots;
+    private final TreeMap<Long, Robot> ranking;
+    private final Map<Robot, Long> keys;
+    private Robot leader;
+
+    // Robots que ganaron desde la ultima puesta al dia, marcados por orden de llegada
+    private Robot[] pending;
+    private int pendingCount;
+    private final BitSet pendingOrders;
+
+    /**
+     * Crea la clasificacion sobre los robots del simulador.
+     * @param robots Tabla de robots (la misma que modifica el simulador)
+     */
+    GainLeaderboard(RobotTable robots) {
+        this.robots = robots;
+        this.ranking = new TreeMap<>();
+        this.keys = new IdentityHashMap<>();
+        this.leader = null;
+        this.pending = new Robot[16];
+        this.pendingCount = 0;
+        this.pendingOrders = new BitSet();
+    }
+
+    /**
+     * Obtiene el robot con mayor ganancia. O(1).
+     * @return Lider, o null si ningun robot ha ganado nada
+     */
+    Robot leader() {
+        return leader;
+    }
+
+    /**
+     * Registra que un robot gano tenges. O(1): compara contra el lider y anota el
+     * robot para el arbol.
+     * @param robot Robot cuya ganancia subio
+     */
+    void gainAdded(Robot robot) {
+        int gain = robot.getTotalGain();
+        if (gain <= 0) {
+            return;
+        }
+        if (leader == null || ranksBefore(robot, gain, leader)) {
+            leader = robot;
+        }
+
+        int order = robot.getPlacementOrder();
+        if (!pendingOrders.get(order)) {
+            pendingOrders.set(order);
+            if (pendingCount == pending.length) {
+                pending = Arrays.copyOf(pending, pendingCount * 2);
+            }
+            pending[pendingCount++] = robot;
+        }
+    }
+
+    /**
+     * Registra que un robot salio o volvio a ganancia 0. O(log n); si era el lider,
+     * pone el arbol al dia para encontrar el siguiente.
+     * @param robot Robot eliminado o reiniciado
+     */
+    void robotDropped(Robot robot) {
+        pendingOrders.clear(robot.getPlacementOrder());
+        remove(robot);
+        if (robot == leader) {
+            flushPending();
+            Map.Entry<Long, Robot> first = ranking.firstEntry();
+            leader = first == null ? null : first.getValue();
+        }
+    }
+
+    /**
+     * Registra un reinicio global: todas las ganancias vuelven a 0.
+     */
+    void cleared() {
+        ranking.clear();
+        keys.clear();
+        leader = null;
+        Arrays.fill(pending, 0, pendingCount, null);
+        pendingCount = 0;
+        pendingOrders.clear();
+    }
+
+    /**
+     * Obtiene los k robots con mayor ganancia, de mayor a menor: los primeros del
+     * arbol y, si faltan, los robots en 0 en orden de llegada. O(k) mas la puesta
+     * al dia de los pendientes.
+     * @param k Numero de robots
+     * @return Robots ordenados por ganancia (menos de k si no hay tantos)
+     */
+    List<Robot> top(int k) {
+        List<Robot> result = new ArrayList<>(Math.max(0, Math.min(k, robots.size())));
+        if (k <= 0) {
+            return result;
+        }
+        flushPending();
+        for (Robot robot : ranking.values()) {
+            if (result.size() == k) {
+                return result;
+            }
+            result.add(robot);
+        }
+        // Solo se llega aqui con menos de k robots en el arbol, asi que se saltan menos de k filas
+        for (int i = 0; i < robots.size() && result.size() < k; i++) {
+            Robot robot = robots.view(i);
+            if (!keys.containsKey(robot)) {
+                result.add(robot);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reubica en el arbol a los robots que ganaron desde la ultima vez. Un robot
+     * que salio mientras tanto ya no esta marcado y se salta.
+     */
+    private void flushPending() {
+        for (int i = 0; i < pendingCount; i++) {
+            Robot robot = pending[i];
+            pending[i] = null;
+            int order = robot.getPlacementOrder();
+            if (!pendingOrders.get(order)) {
+                continue;
+            }
+            pendingOrders.clear(order);
+            remove(robot);
+            int gain = robot.getTotalGain();
+            if (gain > 0) {
+                long key = rankKey(gain, order);
+                ranking.put(key, robot);
+                keys.put(robot, key);
+            }
+        }
+        pendingCount = 0;
+    }
+
+    private void remove(Robot robot) {
+        Long key = keys.remove(robot);
+        if (key != null) {
+            ranking.remove(key);
+        }
+    }
+
+    /**
+     * Indica si un robot va antes que otro: mayor ganancia o, en empate, llego antes.
+     */
+    private static boolean ranksBefore(Robot robot, int gain, Robot other) {
+        int otherGain = other.getTotalGain();
+        return gain > otherGain
+            || (gain == otherGain && robot.getPlacementOrder() < other.getPlacementOrder());
+    }
+
+    /**
+     * Clave de orden: mayor ganancia primero y, en empate, menor orden de llegada.
+     */
+    private static long rankKey(int gain, int placementOrder) {
+        return ((long) (Integer.MAX_VALUE - gain) << 32) | (placementOrder & 0xFFFFFFFFL);
+    }
+}
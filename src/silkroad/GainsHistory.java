@@ -0,0 +1,71 @@
+package silkroad;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Historial de ganancias de un robot: la ganancia de cada movimiento, en orden.
+ * Hay dos formas de guardarlo: ArrayGainsHistory, un arreglo de int que se lee sin
+ * copiarlo, y CompactGainsHistory, corridas comprimidas para simulaciones muy largas.
+ * Las lecturas no modifican el historial, asi que pueden hacerse desde varios hilos
+ * mientras nadie agregue.
+ *
+ * @author Santiago Andres Gomez Rojas y Miguel Angel Sandoval
+ */
+public abstract class GainsHistory {
+
+    /**
+     * Agrega la ganancia de un movimiento.
+     * @param gain Ganancia del movimiento
+     */
+    public abstract void add(int gain);
+
+    /**
+     * Obtiene la ganancia de un movimiento.
+     * @param index Numero de movimiento (0-indexed)
+     * @return Ganancia del movimiento
+     * @throws IndexOutOfBoundsException si index no esta en [0, size())
+     */
+    public abstract int get(int index);
+
+    /**
+     * Obtiene el numero de movimientos registrados.
+     * @return Tamaño del historial
+     */
+    public abstract int size();
+
+    /**
+     * Vacia el historial conservando su capacidad.
+     */
+    public abstract void clear();
+
+    /**
+     * Obtiene una vista de solo lectura del historial.
+     * La vista refleja el historial hasta el proximo add o clear; despues hay que
+     * pedir otra.
+     * @return Buffer con una ganancia por movimiento, de la posicion 0 a size() - 1
+     */
+    public abstract IntBuffer view();
+
+    /**
+     * Copia el historial a un arreglo.
+     * @param destination Arreglo destino (debe tener espacio para size() valores)
+     * @param offset Posicion del primer movimiento en destination
+     */
+    public abstract void copyTo(int[] destination, int offset);
+
+    /**
+     * Copia el historial a una lista.
+     * @return Lista nueva con una ganancia por movimiento
+     */
+    public List<Integer> toList() {
+        int[] values = new int[size()];
+        copyTo(values, 0);
+        List<Integer> list = new ArrayList<>(values.length);
+        for (int value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+}
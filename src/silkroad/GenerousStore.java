@@ -20,6 +20,19 @@ public class GenerousStore extends Store {
         super(location, tenges, color, x, y);
     }
     
+    /**
+     * Crea una tienda generosa con su fila en la tabla del simulador.
+     * @param owner Simulador dueño
+     * @param location Posicion de la tienda en la ruta
+     * @param tenges Cantidad inicial de dinero
+     * @param color Color de la tienda
+     * @param x Coordenada X visual
+     * @param y Coordenada Y visual
+     */
+    GenerousStore(SilkRoad owner, int location, int tenges, String color, int x, int y) {
+        super(owner, location, tenges, color, x, y);
+    }
+    
     @Override
     public boolean canRobotTake(Robot robot) {
         return true;
@@ -27,20 +40,7 @@ public class GenerousStore extends Store {
     
     @Override
     public int takeTenges(int amount, Robot robot) {
-        if (!canRobotTake(robot)) {
-            return 0;
-        }
-        
-        int taken = Math.min(amount, tenges);
-        tenges -= taken;
-        
-        if (tenges == 0 && taken > 0) {
-            timesEmptied++;
-            isEmpty = true;
-            visualRepresentation.changeColor("gray");
-        }
-        
-        return taken * 2;
+        return super.takeTenges(amount, robot) * 2;
     }
     
     @Override
@@ -19,6 +19,18 @@ public class GreedyRobot extends Robot {
         super(location, color, x, y);
     }
     
+    /**
+     * Crea un robot codicioso con su fila en la tabla del simulador.
+     * @param owner Simulador dueño
+     * @param location Posicion inicial del robot
+     * @param color Color del robot
+     * @param x Coordenada X visual
+     * @param y Coordenada Y visual
+     */
+    GreedyRobot(SilkRoad owner, int location, String color, int x, int y) {
+        super(owner, location, color, x, y);
+    }
+    
     @Override
     public int collectFromStore(Store store) {
         int available = store.getTenges();
@@ -19,6 +19,18 @@ public class NormalRobot extends Robot {
         super(location, color, x, y);
     }
     
+    /**
+     * Crea un robot normal con su fila en la tabla del simulador.
+     * @param owner Simulador dueño
+     * @param location Posicion inicial del robot
+     * @param color Color del robot
+     * @param x Coordenada X visual
+     * @param y Coordenada Y visual
+     */
+    NormalRobot(SilkRoad owner, int location, String color, int x, int y) {
+        super(owner, location, color, x, y);
+    }
+    
     /**
      * Constructor de compatibilidad con ciclos anteriores.
      * @param location Posicion inicial del robot
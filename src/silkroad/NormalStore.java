@@ -19,6 +19,19 @@ public class NormalStore extends Store {
         super(location, tenges, color, x, y);
     }
     
+    /**
+     * Crea una tienda normal con su fila en la tabla del simulador.
+     * @param owner Simulador dueño
+     * @param location Posicion de la tienda en la ruta
+     * @param tenges Cantidad inicial de dinero
+     * @param color Color de la tienda
+     * @param x Coordenada X visual
+     * @param y Coordenada Y visual
+     */
+    NormalStore(SilkRoad owner, int location, int tenges, String color, int x, int y) {
+        super(owner, location, tenges, color, x, y);
+    }
+    
     /**
      * Constructor de compatibilidad con ciclos anteriores.
      * @param location Posicion de la tienda
@@ -0,0 +1,114 @@
+package silkroad;
+
+import java.util.Arrays;
+
+/**
+ * Cota inferior rápida para la maratón: la mejor pareja robot-tienda.
+ * Mandar un solo robot a una sola tienda siempre es una solución válida, y su
+ * ganancia es tenges - |robot - tienda|. Con las ubicaciones comprimidas y cuatro
+ * árboles de Fenwick de máximos (tiendas y robots, a cada lado) la mejor pareja
+ * que forma cada punto nuevo se obtiene en O(log n). Los árboles guardan cada valor
+ * sumado a OFFSET, así que 0 significa vacío y se crean sin recorrerlos.
+ *
+ * Como los robots y tiendas solo se agregan, la cota de un día nunca baja.
+ *
+ * @author Santiago Andres Gomez Rojas y Miguel Angel Sandoval
+ */
+class PairProfitBound {
+    private static final long NONE = Long.MIN_VALUE / 4;
+    // Mayor que cualquier |tenges ± ubicación|, para que los valores guardados sean positivos
+    private static final long OFFSET = 1L << 40;
+
+    private final int[] sorted;
+    private final int unique;
+    private final long[] storeBefore;
+    private final long[] storeAfter;
+    private final long[] robotBefore;
+    private final long[] robotAfter;
+    private long best;
+
+    /**
+     * Crea la cota con todas las ubicaciones que pueden aparecer. O(1) ademas de
+     * reservar los arboles.
+     * @param sorted Ubicaciones distintas en orden creciente, en las primeras posiciones
+     * @param unique Numero de ubicaciones distintas
+     */
+    PairProfitBound(int[] sorted, int unique) {
+        this.sorted = sorted;
+        this.unique = unique;
+        this.storeBefore = new long[unique + 1];
+        this.storeAfter = new long[unique + 1];
+        this.robotBefore = new long[unique + 1];
+        this.robotAfter = new long[unique + 1];
+        this.best = 0;
+    }
+
+    /**
+     * Agrega un robot y actualiza la cota.
+     * @param location Ubicación del robot
+     * @return Cota inferior después de agregarlo
+     */
+    long addRobot(int location) {
+        int index = indexOf(location);
+        update(robotBefore, index, location);
+        update(robotAfter, mirror(index), -(long) location);
+
+        // Tienda a la izquierda: t - (r - s) = (t + s) - r; a la derecha: (t - s) + r
+        long left = query(storeBefore, index) - location;
+        long right = query(storeAfter, mirror(index)) + location;
+        best = Math.max(best, Math.max(left, right));
+        return best;
+    }
+
+    /**
+     * Agrega una tienda y actualiza la cota.
+     * @param location Ubicación de la tienda
+     * @param tenges Dinero de la tienda
+     * @return Cota inferior después de agregarla
+     */
+    long addStore(int location, int tenges) {
+        if (tenges <= 0) {
+            return best;
+        }
+        int index = indexOf(location);
+        update(storeBefore, index, (long) tenges + location);
+        update(storeAfter, mirror(index), (long) tenges - location);
+
+        // Robot más cercano a cada lado: t - (s - r) y t - (r - s)
+        long left = tenges - location + query(robotBefore, index);
+        long right = tenges + location + query(robotAfter, mirror(index));
+        best = Math.max(best, Math.max(left, right));
+        return best;
+    }
+
+    /**
+     * Obtiene la cota actual.
+     * @return Mejor ganancia de una pareja (nunca negativa)
+     */
+    long best() {
+        return best;
+    }
+
+    private int indexOf(int location) {
+        return Arrays.binarySearch(sorted, 0, unique, location) + 1;
+    }
+
+    private int mirror(int index) {
+        return unique - index + 1;
+    }
+
+    private static void update(long[] tree, int index, long value) {
+        long stored = value + OFFSET;
+        for (int i = index; i < tree.length; i += i & -i) {
+            tree[i] = Math.max(tree[i], stored);
+        }
+    }
+
+    private static long query(long[] tree, int index) {
+        long result = 0;
+        for (int i = index; i > 0; i -= i & -i) {
+            result = Math.max(result, tree[i]);
+        }
+        return result == 0 ? NONE : result - OFFSET;
+    }
+}
@@ -4,6 +4,7 @@ import shapes.Rectangle;
 
 /**
  * Clase para manejar la barra de progreso de ganancias.
+ * Los rectangulos se crean solo la primera vez que la barra se hace visible.
  * 
  * @author Santiago Andres Gomez Rojas y Miguel Angel Sandoval
  */
@@ -21,7 +22,14 @@ public class ProgressBar {
         this.maximum = 100;
         this.current = 0;
         this.visible = false;
-        
+        this.background = null;
+        this.fill = null;
+    }
+    
+    /**
+     * Crea los rectangulos de la barra (invisibles).
+     */
+    private void createShapes() {
         background = new Rectangle();
         background.changeColor("gray");
         background.changeSize(400, 20);
@@ -71,6 +79,9 @@ public class ProgressBar {
      */
     public void makeVisible() {
         visible = true;
+        if (background == null) {
+            createShapes();
+        }
         background.makeVisible();
         fill.makeVisible();
         updateVisual();
@@ -81,6 +92,9 @@ public class ProgressBar {
      */
     public void makeInvisible() {
         visible = false;
+        if (background == null) {
+            return;
+        }
         background.makeInvisible();
         fill.makeInvisible();
     }
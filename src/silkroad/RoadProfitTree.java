@@ -0,0 +1,276 @@
+package silkroad;
+
+import java.util.Arrays;
+
+/**
+ * Arbol de segmentos sobre la ruta para el problema de la maraton.
+ * Cada hoja es un robot o una tienda (ordenados por ubicacion) y cada nodo interno
+ * guarda una matriz (max, +) de 5x5 que resume el mejor aporte de su rango.
+ *
+ * En una ruta lineal cada robot recorre un intervalo que contiene su posicion,
+ * primero hacia un lado y luego hacia el otro, asi que el brazo que recorre
+ * primero se paga dos veces y el otro una sola vez. Los estados de la matriz son:
+ * libre, brazo izquierdo (x1 o x2) antes de llegar al robot y brazo derecho
+ * (x1 o x2) despues de el.
+ *
+ * Todas las ubicaciones se conocen al construir el arbol; los puntos se activan
+ * uno por uno en O(log n) y la ganancia maxima se lee en O(1). Las matrices de los
+ * nodos internos se reservan por bloques la primera vez que se activa un punto
+ * debajo de ellos, asi que construir el arbol no recorre la memoria de las matrices.
+ *
+ * @author Santiago Andres Gomez Rojas y Miguel Angel Sandoval
+ */
+class RoadProfitTree {
+    private static final int STATES = 5;
+    private static final int CELLS = STATES * STATES;
+    private static final int FREE = 0;
+    private static final int LEFT_ONCE = 1;
+    private static final int LEFT_TWICE = 2;
+    private static final int RIGHT_ONCE = 3;
+    private static final int RIGHT_TWICE = 4;
+    private static final long[] ARM_WEIGHT = {0, 1, 2, 1, 2};
+    private static final long NONE = Long.MIN_VALUE / 4;
+    private static final int BLOCK_SHIFT = 10;
+    private static final int BLOCK_MASK = (1 << BLOCK_SHIFT) - 1;
+
+    private final int leaves;
+    private final int[] leafOf;
+    private final int[] location;
+    private final long[] value;
+    private final boolean[] robot;
+    private final boolean[] active;
+    private final boolean[] nodeActive;
+    private final int[] minLocation;
+    private final int[] maxLocation;
+    private final long[][] matrix;
+
+    private final long[] leftLeaf = new long[CELLS];
+    private final long[] rightLeaf = new long[CELLS];
+
+    /**
+     * Crea el arbol con todos los puntos inactivos.
+     * @param locations Ubicacion de cada punto, indexada por el numero de punto
+     */
+    RoadProfitTree(int[] locations) {
+        this(locations.length);
+        placePoints(locations, orderByLocation(locations), 0, locations.length);
+    }
+
+    /**
+     * Crea el arbol sin ubicaciones; hay que darlas con placePoints antes de activar puntos.
+     * @param points Numero de puntos
+     */
+    RoadProfitTree(int points) {
+        int size = 1;
+        while (size < points) {
+            size <<= 1;
+        }
+        this.leaves = size;
+
+        leafOf = new int[points];
+        location = new int[size];
+        value = new long[size];
+        robot = new boolean[size];
+        active = new boolean[size];
+        nodeActive = new boolean[size];
+        minLocation = new int[size];
+        maxLocation = new int[size];
+        matrix = new long[(size >> BLOCK_SHIFT) + 1][];
+    }
+
+    /**
+     * Asigna las hojas de un tramo del orden por ubicacion, para poder repartir la
+     * preparacion en partes.
+     * @param locations Ubicacion de cada punto, indexada por el numero de punto
+     * @param order Numeros de punto ordenados por (ubicacion, numero de punto)
+     * @param from Primera posicion del orden
+     * @param to Posicion siguiente a la ultima
+     */
+    void placePoints(int[] locations, int[] order, int from, int to) {
+        for (int k = from; k < to; k++) {
+            int point = order[k];
+            leafOf[point] = k;
+            location[k] = locations[point];
+        }
+    }
+
+    /**
+     * Ordena los puntos por (ubicacion, numero de punto) para que los empates
+     * respeten el orden de llegada.
+     * @param locations Ubicacion de cada punto
+     * @return Numeros de punto en orden
+     */
+    private static int[] orderByLocation(int[] locations) {
+        int n = locations.length;
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = ((long) locations[i] << 32) | i;
+        }
+        Arrays.sort(keys);
+
+        int[] order = new int[n];
+        for (int k = 0; k < n; k++) {
+            order[k] = (int) keys[k];
+        }
+        return order;
+    }
+
+    /**
+     * Activa un punto como robot.
+     * @param point Numero del punto
+     */
+    void addRobot(int point) {
+        activate(point, 0, true);
+    }
+
+    /**
+     * Activa un punto como tienda.
+     * @param point Numero del punto
+     * @param tenges Dinero de la tienda (los valores negativos nunca se recogen)
+     */
+    void addStore(int point, long tenges) {
+        activate(point, Math.max(0, tenges), false);
+    }
+
+    /**
+     * Obtiene la ganancia maxima con los puntos activos.
+     * @return Ganancia maxima (nunca negativa)
+     */
+    long maxProfit() {
+        if (leaves == 1 || !nodeActive[1]) {
+            return 0;
+        }
+        return Math.max(0, matrix[0][CELLS + FREE * STATES + FREE]);
+    }
+
+    private void activate(int point, long amount, boolean isRobot) {
+        int leaf = leafOf[point];
+        value[leaf] = amount;
+        robot[leaf] = isRobot;
+        active[leaf] = true;
+
+        for (int node = (leaves + leaf) >> 1; node >= 1; node >>= 1) {
+            pull(node);
+        }
+    }
+
+    /**
+     * Recalcula el nodo interno a partir de sus dos hijos.
+     */
+    private void pull(int node) {
+        int l = node << 1;
+        int r = l | 1;
+        boolean leftActive = isActive(l);
+        boolean rightActive = isActive(r);
+        nodeActive[node] = leftActive || rightActive;
+        if (!nodeActive[node]) {
+            return;
+        }
+
+        long[] a = leftActive ? source(l, leftLeaf) : null;
+        int aOffset = leftActive ? offset(l) : 0;
+        long[] b = rightActive ? source(r, rightLeaf) : null;
+        int bOffset = rightActive ? offset(r) : 0;
+        long[] target = block(node);
+        int out = offset(node);
+
+        if (!rightActive) {
+            System.arraycopy(a, aOffset, target, out, CELLS);
+            minLocation[node] = firstLocation(l);
+            maxLocation[node] = lastLocation(l);
+        } else if (!leftActive) {
+            System.arraycopy(b, bOffset, target, out, CELLS);
+            minLocation[node] = firstLocation(r);
+            maxLocation[node] = lastLocation(r);
+        } else {
+            long gap = (long) firstLocation(r) - lastLocation(l);
+            multiply(a, aOffset, gap, b, bOffset, target, out);
+            minLocation[node] = firstLocation(l);
+            maxLocation[node] = lastLocation(r);
+        }
+    }
+
+    private boolean isActive(int node) {
+        return node >= leaves ? active[node - leaves] : nodeActive[node];
+    }
+
+    private int firstLocation(int node) {
+        return node >= leaves ? location[node - leaves] : minLocation[node];
+    }
+
+    private int lastLocation(int node) {
+        return node >= leaves ? location[node - leaves] : maxLocation[node];
+    }
+
+    private long[] source(int node, long[] leafBuffer) {
+        if (node < leaves) {
+            return matrix[node >> BLOCK_SHIFT];
+        }
+        fillLeaf(node - leaves, leafBuffer);
+        return leafBuffer;
+    }
+
+    private int offset(int node) {
+        return node < leaves ? (node & BLOCK_MASK) * CELLS : 0;
+    }
+
+    /**
+     * Obtiene el bloque de matrices de un nodo interno, reservandolo si es el primero.
+     */
+    private long[] block(int node) {
+        int index = node >> BLOCK_SHIFT;
+        if (matrix[index] == null) {
+            matrix[index] = new long[Math.min(leaves, BLOCK_MASK + 1) * CELLS];
+        }
+        return matrix[index];
+    }
+
+    /**
+     * Construye la matriz de transicion de un solo punto.
+     */
+    private void fillLeaf(int leaf, long[] out) {
+        Arrays.fill(out, NONE);
+        if (robot[leaf]) {
+            // Robot quieto (o que otro robot pasa por encima).
+            for (int s = 0; s < STATES; s++) {
+                out[s * STATES + s] = 0;
+            }
+            out[FREE * STATES + RIGHT_ONCE] = 0;
+            out[LEFT_ONCE * STATES + FREE] = 0;
+            out[LEFT_ONCE * STATES + RIGHT_TWICE] = 0;
+            out[LEFT_TWICE * STATES + RIGHT_ONCE] = 0;
+        } else {
+            long gain = value[leaf];
+            out[FREE * STATES + FREE] = 0;
+            out[FREE * STATES + LEFT_ONCE] = gain;
+            out[FREE * STATES + LEFT_TWICE] = gain;
+            out[LEFT_ONCE * STATES + LEFT_ONCE] = gain;
+            out[LEFT_TWICE * STATES + LEFT_TWICE] = gain;
+            out[RIGHT_ONCE * STATES + RIGHT_ONCE] = gain;
+            out[RIGHT_ONCE * STATES + FREE] = gain;
+            out[RIGHT_TWICE * STATES + RIGHT_TWICE] = gain;
+            out[RIGHT_TWICE * STATES + FREE] = gain;
+        }
+    }
+
+    /**
+     * out = a * G(gap) * b en el semianillo (max, +), donde G cobra el tramo
+     * entre ambos bloques segun el peso del brazo que lo recorre.
+     */
+    private static void multiply(long[] a, int aOffset, long gap, long[] b, int bOffset,
+                                 long[] out, int outOffset) {
+        for (int i = 0; i < STATES; i++) {
+            for (int j = 0; j < STATES; j++) {
+                long best = NONE;
+                for (int k = 0; k < STATES; k++) {
+                    long candidate = a[aOffset + i * STATES + k] + b[bOffset + k * STATES + j]
+                                     - ARM_WEIGHT[k] * gap;
+                    if (candidate > best) {
+                        best = candidate;
+                    }
+                }
+                out[outOffset + i * STATES + j] = best < NONE / 2 ? NONE : best;
+            }
+        }
+    }
+}
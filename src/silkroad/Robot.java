@@ -1,23 +1,31 @@
 package silkroad; 
 
+import shapes.Canvas;
 import shapes.Circle;  
+import java.nio.IntBuffer;
 import java.util.List;
-import java.util.ArrayList;
 
 /**
 * Clase abstracta base para todos los robots en la Ruta de la Seda.
 * Define comportamiento comun y permite extensibilidad mediante herencia.
+* La representacion visual se crea solo la primera vez que el robot se hace
+* visible, asi que el modelo puede usarse sin tocar el canvas.
+* Cuando el simulador reinicia todos los robots solo avanza una epoca; cada robot
+* vuelve a su estado inicial la primera vez que se consulta despues.
+* Los datos del robot (ubicaciones, ganancias, posicion del dibujo) viven en una
+* fila de RobotTable: la del simulador dueño, o una propia si el robot esta suelto.
+* Los robots que coloca el simulador se crean directamente en su tabla.
 * 
 * @author Santiago Andres Gomez Rojas y Miguel Angel Sandoval
 */
 
 public abstract class Robot {
+        private static final long BLINK_PERIOD_MILLIS = 200;
+        
         protected Circle visualRepresentation;
-        protected int location;
-        protected int initialLocation;
-        protected List<Integer> gainsHistory;
-        protected int totalGain;
         protected String originalColor;
+        private RobotTable table;
+        private int row;
         
         /**
          * Constructor protegido para subclases.
@@ -27,18 +35,22 @@ public abstract class Robot {
          * @param y Coordenada Y visual en pixels
          */
         protected Robot(int location, String color, int x, int y) {
-            this.location = location;
-            this.initialLocation = location;
-            this.gainsHistory = new ArrayList<>();
-            this.totalGain = 0;
+            this(null, location, color, x, y);
+        }
+        
+        /**
+         * Constructor para subclases que crea la fila en la tabla del simulador.
+         * @param owner Simulador dueño (null para un robot suelto con tabla propia)
+         * @param location Posicion inicial del robot en la ruta (0 <= location < length)
+         * @param color Color del robot para visualizacion
+         * @param x Coordenada X visual en pixels
+         * @param y Coordenada Y visual en pixels
+         */
+        Robot(SilkRoad owner, int location, String color, int x, int y) {
+            this.table = owner == null ? new RobotTable(null, 1) : owner.robotTable();
+            this.row = table.add(this, location, x, y);
             this.originalColor = color;
-            
-            this.visualRepresentation = new Circle();
-            visualRepresentation.changeColor(color);
-            visualRepresentation.changeSize(20);
-            visualRepresentation.moveHorizontal(x + 5 - visualRepresentation.getXPosition());
-            visualRepresentation.moveVertical(y + 5 - visualRepresentation.getYPosition());
-            visualRepresentation.makeVisible();
+            this.visualRepresentation = null;
         }
         
         /**
@@ -46,7 +58,8 @@ public abstract class Robot {
          * @return Ubicacion actual en la ruta
          */
         public int getLocation() {
-            return location;
+            sync();
+            return table.location(row);
         }
         
         /**
@@ -54,7 +67,7 @@ public abstract class Robot {
          * @return Ubicacion inicial en la ruta
          */
         public int getInitialLocation() {
-            return initialLocation;
+            return table.initialLocation(row);
         }
         
         /**
@@ -63,7 +76,56 @@ public abstract class Robot {
          * @return Lista con las ganancias por cada movimiento del robot
          */
         public List<Integer> getGainsHistory() {
-            return new ArrayList<>(gainsHistory);
+            sync();
+            return table.history(row).toList();
+        }
+        
+        /**
+         * Obtiene el historial de ganancias sin copiarlo.
+         * La vista es de solo lectura y vale hasta el siguiente movimiento o reinicio.
+         * @return Buffer con la ganancia de cada movimiento del robot
+         */
+        public IntBuffer getGains() {
+            sync();
+            return table.history(row).view();
+        }
+        
+        /**
+         * Elige si el historial de ganancias se guarda comprimido.
+         * El modo comprimido ocupa mucha menos memoria en simulaciones largas a
+         * cambio de decodificar al leerlo. El historial actual se conserva.
+         * @param compact true para usar CompactGainsHistory
+         */
+        public void setCompactHistory(boolean compact) {
+            sync();
+            if (compact == isCompactHistory()) {
+                return;
+            }
+            GainsHistory current = table.history(row);
+            int[] gains = new int[current.size()];
+            current.copyTo(gains, 0);
+            GainsHistory converted = compact ? new CompactGainsHistory() : new ArrayGainsHistory();
+            for (int gain : gains) {
+                converted.add(gain);
+            }
+            table.setHistory(row, converted);
+        }
+        
+        /**
+         * Indica si el historial de ganancias se guarda comprimido.
+         * @return true si usa CompactGainsHistory
+         */
+        public boolean isCompactHistory() {
+            return table.history(row) instanceof CompactGainsHistory;
+        }
+        
+        /**
+         * Obtiene el historial de ganancias del robot al dia.
+         * @return Historial del robot (no copiarlo ni modificarlo desde fuera)
+         */
+        GainsHistory history() {
+            sync();
+            return table.history(row);
         }
         
         /**
@@ -71,7 +133,8 @@ public abstract class Robot {
          * @return Ganancia total acumulada desde el inicio del simulador
          */
         public int getTotalGain() {
-            return totalGain;
+            sync();
+            return table.totalGain(row);
         }
         
         /**
@@ -94,8 +157,12 @@ public abstract class Robot {
          * @param gain Ganancia obtenida en el movimiento (>= 0)
          */
         public void addGain(int gain) {
-            gainsHistory.add(gain);
-            totalGain += gain;
+            sync();
+            table.addGain(row, gain);
+            SilkRoad owner = table.owner();
+            if (owner != null) {
+                owner.robotGainAdded(this);
+            }
         }
         
         /**
@@ -106,11 +173,9 @@ public abstract class Robot {
          * @param y Nueva coordenada Y para la visualizacion en pixels
          */
         public void moveTo(int newLocation, int x, int y) {
-            int currentX = visualRepresentation.getXPosition();
-            int currentY = visualRepresentation.getYPosition();
-            visualRepresentation.moveHorizontal((x + 5) - currentX);
-            visualRepresentation.moveVertical((y + 5) - currentY);
-            this.location = newLocation;
+            sync();
+            table.moveTo(row, newLocation, x, y);
+            placeVisual();
         }
         
         /**
@@ -121,7 +186,7 @@ public abstract class Robot {
          */
         public void returnToInitialPosition(int x, int y) {
             if (canReturnToInitial()) {
-                moveTo(initialLocation, x, y);
+                moveTo(table.initialLocation(row), x, y);
             }
         }
         
@@ -130,25 +195,109 @@ public abstract class Robot {
          * Limpia el historial de ganancias y lo devuelve a posicion inicial.
          */
         public void reset() {
-            location = initialLocation;
-            gainsHistory.clear();
-            totalGain = 0;
+            sync();
+            table.reset(row);
+            SilkRoad owner = table.owner();
+            if (owner != null) {
+                owner.robotGainReset(this);
+            }
+        }
+        
+        /**
+         * Asigna el simulador que lleva la epoca de reinicio de este robot.
+         * La fila del robot pasa a la tabla del simulador (o a una propia al
+         * quitarlo) y queda al dia con la epoca actual del simulador. Solo se
+         * crea una tabla propia si la fila de verdad tiene que salir de la actual.
+         * @param owner Simulador dueño del robot (null al quitarlo)
+         */
+        void setOwner(SilkRoad owner) {
+            if (table.owner() == owner) {
+                return;
+            }
+            sync();
+            RobotTable target = owner == null ? new RobotTable(null, 1) : owner.robotTable();
+            int newRow = target.adopt(table, row);
+            table.remove(row);
+            table = target;
+            row = newRow;
+        }
+        
+        /**
+         * Cambia la fila del robot cuando su tabla corre las filas.
+         * @param newRow Fila nueva
+         */
+        void moveToRow(int newRow) {
+            row = newRow;
+        }
+        
+        /**
+         * Asigna el orden en que el robot fue colocado, para desempatar ganancias.
+         * @param order Orden de llegada (menor gana en empates)
+         */
+        void setPlacementOrder(int order) {
+            table.setPlacementOrder(row, order);
+        }
+        
+        /**
+         * Obtiene el orden en que el robot fue colocado.
+         * @return Orden de llegada
+         */
+        int getPlacementOrder() {
+            return table.placementOrder(row);
+        }
+        
+        /**
+         * Aplica el ultimo reinicio global si el robot no lo ha visto: vuelve a su
+         * ubicacion inicial y limpia sus ganancias.
+         */
+        void sync() {
+            if (table.sync(row)) {
+                placeVisual();
+            }
+        }
+        
+        /**
+         * Lleva el circulo, si existe, a la posicion del dibujo guardada en la tabla.
+         */
+        private void placeVisual() {
+            if (visualRepresentation != null) {
+                int dx = table.visualX(row) + 5 - visualRepresentation.getXPosition();
+                int dy = table.visualY(row) + 5 - visualRepresentation.getYPosition();
+                if (dx != 0) {
+                    visualRepresentation.moveHorizontal(dx);
+                }
+                if (dy != 0) {
+                    visualRepresentation.moveVertical(dy);
+                }
+            }
         }
         
         /**
          * Hace que el robot parpadee para indicar maxima ganancia.
-         * El parpadeo ocurre en un thread separado.
+         * El parpadeo corre en el planificador de animaciones compartido; si el robot
+         * ya esta parpadeando, el parpadeo en curso se alarga en vez de empezar otro.
+         * Cada paso dibuja dentro de un lote del canvas, asi que no hace la pausa de
+         * draw/erase y no retiene el hilo del planificador.
          * @param times Numero de veces que debe parpadear el robot
          */
         public void blink(int times) {
-            new Thread(() -> {
-                for (int i = 0; i < times; i++) {
-                    visualRepresentation.makeInvisible();
-                    try { Thread.sleep(200); } catch (InterruptedException e) {}
-                    visualRepresentation.makeVisible();
-                    try { Thread.sleep(200); } catch (InterruptedException e) {}
+            if (visualRepresentation == null || times <= 0) {
+                return;
+            }
+            Circle circle = visualRepresentation;
+            AnimationScheduler.shared().play(this, times * 2, BLINK_PERIOD_MILLIS, step -> {
+                Canvas canvas = Canvas.getCanvas();
+                canvas.beginBatch();
+                try {
+                    if (step % 2 == 0) {
+                        circle.makeInvisible();
+                    } else {
+                        circle.makeVisible();
+                    }
+                } finally {
+                    canvas.commitBatch();
                 }
-            }).start();
+            });
         }
         
         /**
@@ -165,7 +314,9 @@ public abstract class Robot {
          */
         public void changeColor(String color) {
             this.originalColor = color;
-            visualRepresentation.changeColor(color);
+            if (visualRepresentation != null) {
+                visualRepresentation.changeColor(color);
+            }
         }
         
         /**
@@ -175,9 +326,17 @@ public abstract class Robot {
         public abstract String getType();
         
         /**
-         * Hace visible el robot en el canvas.
+         * Hace visible el robot en el canvas, creando su representacion si hace falta.
          */
         public void makeVisible() {
+            sync();
+            if (visualRepresentation == null) {
+                visualRepresentation = new Circle();
+                visualRepresentation.changeColor(originalColor);
+                visualRepresentation.changeSize(20);
+            }
+            // El simulador puede haber reiniciado la fila sin pasar por esta vista
+            placeVisual();
             visualRepresentation.makeVisible();
         }
         
@@ -185,6 +344,10 @@ public abstract class Robot {
          * Hace invisible el robot en el canvas.
          */
         public void makeInvisible() {
-            visualRepresentation.makeInvisible();
+            if (visualRepresentation != null) {
+                // Un parpadeo pendiente no debe volver a mostrarlo; cancel espera al paso en curso
+                AnimationScheduler.shared().cancel(this);
+                visualRepresentation.makeInvisible();
+            }
         }
     }
\ No newline at end of file
@@ -0,0 +1,297 @@
+package silkroad;
+
+import java.util.Arrays;
+
+/**
+ * Estado de los robots guardado en columnas de enteros primitivos (ubicacion,
+ * ubicacion inicial, ganancia total, orden de llegada, posicion del dibujo y marca
+ * de reinicio), una fila por robot en orden de llegada, mas el historial de
+ * ganancias de cada uno. Cada Robot es una vista sobre una fila, igual que las
+ * tiendas con StoreTable.
+ *
+ * @author Santiago Andres Gomez Rojas y Miguel Angel Sandoval
+ */
+class RobotTable {
+    private final SilkRoad owner;
+    private Robot[] views;
+    private GainsHistory[] history;
+    private int[] location;
+    private int[] initialLocation;
+    private int[] totalGain;
+    private int[] placementOrder;
+    private int[] visualX;
+    private int[] visualY;
+    private int[] initialX;
+    private int[] initialY;
+    private int[] rebootStamp;
+    private int size;
+
+    /**
+     * Crea una tabla vacia.
+     * @param owner Simulador que lleva la epoca de reinicio (null para un robot suelto)
+     * @param capacity Filas reservadas al inicio (> 0)
+     */
+    RobotTable(SilkRoad owner, int capacity) {
+        this.owner = owner;
+        this.views = new Robot[capacity];
+        this.history = new GainsHistory[capacity];
+        this.location = new int[capacity];
+        this.initialLocation = new int[capacity];
+        this.totalGain = new int[capacity];
+        this.placementOrder = new int[capacity];
+        this.visualX = new int[capacity];
+        this.visualY = new int[capacity];
+        this.initialX = new int[capacity];
+        this.initialY = new int[capacity];
+        this.rebootStamp = new int[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * Obtiene el simulador dueño de la tabla.
+     * @return Simulador, o null si es la tabla de un robot suelto
+     */
+    SilkRoad owner() {
+        return owner;
+    }
+
+    /**
+     * Obtiene el numero de robots.
+     * @return Filas ocupadas
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Obtiene el robot de una fila.
+     * @param row Fila
+     * @return Vista de la fila
+     */
+    Robot view(int row) {
+        return views[row];
+    }
+
+    /**
+     * Agrega un robot nuevo al final, sin ganancias.
+     * @param view Robot que vera la fila
+     * @param robotLocation Ubicacion inicial en la ruta
+     * @param x Coordenada X del dibujo en pixels
+     * @param y Coordenada Y del dibujo en pixels
+     * @return Fila asignada
+     */
+    int add(Robot view, int robotLocation, int x, int y) {
+        int row = append(view);
+        history[row] = new ArrayGainsHistory();
+        location[row] = robotLocation;
+        initialLocation[row] = robotLocation;
+        totalGain[row] = 0;
+        placementOrder[row] = 0;
+        visualX[row] = x;
+        visualY[row] = y;
+        initialX[row] = x;
+        initialY[row] = y;
+        return row;
+    }
+
+    /**
+     * Copia al final una fila de otra tabla (que ya debe estar al dia con su epoca).
+     * El historial se comparte, no se copia. La fila queda al dia con la epoca de
+     * esta tabla.
+     * @param source Tabla de origen
+     * @param sourceRow Fila en la tabla de origen
+     * @return Fila asignada
+     */
+    int adopt(RobotTable source, int sourceRow) {
+        int row = append(source.views[sourceRow]);
+        history[row] = source.history[sourceRow];
+        location[row] = source.location[sourceRow];
+        initialLocation[row] = source.initialLocation[sourceRow];
+        totalGain[row] = source.totalGain[sourceRow];
+        placementOrder[row] = source.placementOrder[sourceRow];
+        visualX[row] = source.visualX[sourceRow];
+        visualY[row] = source.visualY[sourceRow];
+        initialX[row] = source.initialX[sourceRow];
+        initialY[row] = source.initialY[sourceRow];
+        return row;
+    }
+
+    /**
+     * Quita una fila corriendo las siguientes una posicion y avisando a sus vistas.
+     * @param row Fila a quitar
+     */
+    void remove(int row) {
+        int moved = size - row - 1;
+        System.arraycopy(views, row + 1, views, row, moved);
+        System.arraycopy(history, row + 1, history, row, moved);
+        System.arraycopy(location, row + 1, location, row, moved);
+        System.arraycopy(initialLocation, row + 1, initialLocation, row, moved);
+        System.arraycopy(totalGain, row + 1, totalGain, row, moved);
+        System.arraycopy(placementOrder, row + 1, placementOrder, row, moved);
+        System.arraycopy(visualX, row + 1, visualX, row, moved);
+        System.arraycopy(visualY, row + 1, visualY, row, moved);
+        System.arraycopy(initialX, row + 1, initialX, row, moved);
+        System.arraycopy(initialY, row + 1, initialY, row, moved);
+        System.arraycopy(rebootStamp, row + 1, rebootStamp, row, moved);
+        size--;
+        views[size] = null;
+        history[size] = null;
+        for (int i = row; i < size; i++) {
+            views[i].moveToRow(i);
+        }
+    }
+
+    /**
+     * Aplica a una fila el ultimo reinicio global si no lo ha visto: el robot vuelve
+     * a su ubicacion inicial y pierde sus ganancias.
+     * @param row Fila
+     * @return true si la fila cambio
+     */
+    boolean sync(int row) {
+        if (owner == null || rebootStamp[row] == owner.rebootEpoch()) {
+            return false;
+        }
+        rebootStamp[row] = owner.rebootEpoch();
+        location[row] = initialLocation[row];
+        history[row].clear();
+        totalGain[row] = 0;
+        visualX[row] = initialX[row];
+        visualY[row] = initialY[row];
+        return true;
+    }
+
+    /**
+     * Obtiene la ubicacion de un robot (sin aplicar reinicios pendientes).
+     * @param row Fila
+     * @return Ubicacion en la ruta
+     */
+    int location(int row) {
+        return location[row];
+    }
+
+    /**
+     * Mueve un robot.
+     * @param row Fila
+     * @param value Ubicacion nueva
+     * @param x Coordenada X del dibujo en pixels
+     * @param y Coordenada Y del dibujo en pixels
+     */
+    void moveTo(int row, int value, int x, int y) {
+        location[row] = value;
+        visualX[row] = x;
+        visualY[row] = y;
+    }
+
+    /**
+     * Obtiene la ubicacion inicial de un robot.
+     * @param row Fila
+     * @return Ubicacion inicial en la ruta
+     */
+    int initialLocation(int row) {
+        return initialLocation[row];
+    }
+
+    /**
+     * Obtiene la ganancia total de un robot (sin aplicar reinicios pendientes).
+     * @param row Fila
+     * @return Ganancia total
+     */
+    int totalGain(int row) {
+        return totalGain[row];
+    }
+
+    /**
+     * Registra la ganancia de un movimiento en el historial y el total.
+     * @param row Fila
+     * @param gain Ganancia del movimiento
+     */
+    void addGain(int row, int gain) {
+        history[row].add(gain);
+        totalGain[row] += gain;
+    }
+
+    /**
+     * Devuelve un robot a su ubicacion inicial y borra sus ganancias, sin mover el dibujo.
+     * @param row Fila
+     */
+    void reset(int row) {
+        location[row] = initialLocation[row];
+        history[row].clear();
+        totalGain[row] = 0;
+    }
+
+    /**
+     * Obtiene el historial de ganancias de un robot (sin aplicar reinicios pendientes).
+     * @param row Fila
+     * @return Historial
+     */
+    GainsHistory history(int row) {
+        return history[row];
+    }
+
+    /**
+     * Cambia el historial de ganancias de un robot.
+     * @param row Fila
+     * @param gains Historial nuevo
+     */
+    void setHistory(int row, GainsHistory gains) {
+        history[row] = gains;
+    }
+
+    /**
+     * Obtiene el orden de llegada de un robot.
+     * @param row Fila
+     * @return Orden de llegada
+     */
+    int placementOrder(int row) {
+        return placementOrder[row];
+    }
+
+    /**
+     * Cambia el orden de llegada de un robot.
+     * @param row Fila
+     * @param order Orden de llegada
+     */
+    void setPlacementOrder(int row, int order) {
+        placementOrder[row] = order;
+    }
+
+    /**
+     * Obtiene la coordenada X del dibujo de un robot.
+     * @param row Fila
+     * @return Coordenada X en pixels
+     */
+    int visualX(int row) {
+        return visualX[row];
+    }
+
+    /**
+     * Obtiene la coordenada Y del dibujo de un robot.
+     * @param row Fila
+     * @return Coordenada Y en pixels
+     */
+    int visualY(int row) {
+        return visualY[row];
+    }
+
+    private int append(Robot view) {
+        if (size == views.length) {
+            int capacity = size * 2;
+            views = Arrays.copyOf(views, capacity);
+            history = Arrays.copyOf(history, capacity);
+            location = Arrays.copyOf(location, capacity);
+            initialLocation = Arrays.copyOf(initialLocation, capacity);
+            totalGain = Arrays.copyOf(totalGain, capacity);
+            placementOrder = Arrays.copyOf(placementOrder, capacity);
+            visualX = Arrays.copyOf(visualX, capacity);
+            visualY = Arrays.copyOf(visualY, capacity);
+            initialX = Arrays.copyOf(initialX, capacity);
+            initialY = Arrays.copyOf(initialY, capacity);
+            rebootStamp = Arrays.copyOf(rebootStamp, capacity);
+        }
+        int row = size++;
+        views[row] = view;
+        rebootStamp[row] = owner == null ? 0 : owner.rebootEpoch();
+        return row;
+    }
+}
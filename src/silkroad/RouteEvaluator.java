@@ -0,0 +1,105 @@
+package silkroad;
+
+/**
+ * Evaluador de rutas de un robot sobre una ruta lineal.
+ * En una linea la mejor ruta de un robot por un conjunto de tiendas es un barrido
+ * con a lo sumo un giro: va hasta la tienda mas lejana de un lado, vuelve y sigue
+ * hasta la mas lejana del otro. El brazo que recorre primero se paga dos veces.
+ *
+ * Con las tiendas ordenadas por ubicacion, el mejor brazo de cada lado se obtiene
+ * por mascara en O(1) a partir de la mascara sin la tienda mas lejana, asi que
+ * llenar la tabla de un robot cuesta O(2^n) sin reservar memoria en cada llamada.
+ *
+ * @author Santiago Andres Gomez Rojas y Miguel Angel Sandoval
+ */
+class RouteEvaluator {
+    private long[] leftSum = new long[1];
+    private long[] leftOnce = new long[1];
+    private long[] leftTwice = new long[1];
+    private long[] rightSum = new long[1];
+    private long[] rightOnce = new long[1];
+    private long[] rightTwice = new long[1];
+    private int split;
+
+    /**
+     * Llena la mejor ganancia del robot para cada mascara de tiendas.
+     * @param robotPos Posicion inicial del robot
+     * @param stores Puntos del dia (tiendas ordenadas por ubicacion)
+     * @param out Tabla donde se escribe la ganancia por mascara
+     * @param offset Posicion de la mascara vacia dentro de out
+     */
+    void fill(int robotPos, ContestPoints stores, long[] out, int offset) {
+        prepare(robotPos, stores);
+        fillRange(out, offset, 0, 1 << stores.storeCount());
+    }
+
+    /**
+     * Calcula los mejores brazos de cada lado para un robot.
+     * Despues de esta llamada fillRange puede usarse desde varios hilos a la vez.
+     * @param robotPos Posicion inicial del robot
+     * @param stores Puntos del dia (tiendas ordenadas por ubicacion)
+     */
+    void prepare(int robotPos, ContestPoints stores) {
+        int n = stores.storeCount();
+        split = 0;
+        while (split < n && stores.storeLocation(split) <= robotPos) {
+            split++;
+        }
+        int leftMasks = 1 << split;
+        int rightMasks = 1 << (n - split);
+        ensureCapacity(leftMasks, rightMasks);
+
+        // Lado izquierdo: el bit mas bajo es la tienda mas lejana del robot.
+        for (int mask = 1; mask < leftMasks; mask++) {
+            int farthest = Integer.numberOfTrailingZeros(mask);
+            int rest = mask & (mask - 1);
+            long arm = (long) robotPos - stores.storeLocation(farthest);
+
+            leftSum[mask] = leftSum[rest] + Math.max(0, stores.storeTenges(farthest));
+            leftOnce[mask] = Math.max(leftOnce[rest], leftSum[mask] - arm);
+            leftTwice[mask] = Math.max(leftTwice[rest], leftSum[mask] - 2 * arm);
+        }
+
+        // Lado derecho: el bit mas alto es la tienda mas lejana del robot.
+        for (int mask = 1; mask < rightMasks; mask++) {
+            int farthest = 31 - Integer.numberOfLeadingZeros(mask);
+            int rest = mask ^ (1 << farthest);
+            long arm = (long) stores.storeLocation(split + farthest) - robotPos;
+
+            rightSum[mask] = rightSum[rest] + Math.max(0, stores.storeTenges(split + farthest));
+            rightOnce[mask] = Math.max(rightOnce[rest], rightSum[mask] - arm);
+            rightTwice[mask] = Math.max(rightTwice[rest], rightSum[mask] - 2 * arm);
+        }
+    }
+
+    /**
+     * Escribe la ganancia de las mascaras en [from, to) del robot preparado.
+     * @param out Tabla indexada por offset + mascara
+     * @param offset Posicion de la mascara vacia dentro de out
+     * @param from Primera mascara (inclusiva)
+     * @param to Ultima mascara (exclusiva)
+     */
+    void fillRange(long[] out, int offset, int from, int to) {
+        int leftBits = (1 << split) - 1;
+        for (int mask = from; mask < to; mask++) {
+            int l = mask & leftBits;
+            int r = mask >>> split;
+            out[offset + mask] = Math.max(leftTwice[l] + rightOnce[r], leftOnce[l] + rightTwice[r]);
+        }
+    }
+
+    private void ensureCapacity(int leftMasks, int rightMasks) {
+        if (leftSum.length < leftMasks) {
+            int size = Math.max(leftMasks, leftSum.length * 2);
+            leftSum = new long[size];
+            leftOnce = new long[size];
+            leftTwice = new long[size];
+        }
+        if (rightSum.length < rightMasks) {
+            int size = Math.max(rightMasks, rightSum.length * 2);
+            rightSum = new long[size];
+            rightOnce = new long[size];
+            rightTwice = new long[size];
+        }
+    }
+}
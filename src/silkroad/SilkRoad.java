@@ -7,15 +7,44 @@ import javax.swing.JOptionPane;
 /**
  * Simulador de la Ruta de la Seda 
  * Clase principal que coordina todos los componentes del simulador.
+ * Mientras no se llame a makeVisible() el simulador no crea figuras ni toca el
+ * canvas, así que puede usarse como modelo puro en procesos por lotes.
  * 
  * @author Santiago Andres Gomez Rojas y Miguel Angel Sandoval
  */
 public class SilkRoad {
     private int length;
-    private List<Store> stores;
-    private List<Robot> robots;
+    // Modelo por columnas: una fila por tienda y por robot, en orden de llegada.
+    // Store y Robot son vistas sobre esas filas.
+    private StoreTable storeTable;
+    private RobotTable robotTable;
     private boolean visible;
+    
+    // Índice por ubicación: tienda en cada ubicación y cantidad de robots en ella.
+    // robotAt solo es confiable donde robotsAt vale 1; con más robots se recorre la lista.
+    // Las versiones "initial" indexan las ubicaciones iniciales, que son las que quedan
+    // tras reboot(); locationStamp marca qué ubicaciones ya vieron el último reinicio.
+    private Store[] storeAt;
+    private Robot[] robotAt;
+    private int[] robotsAt;
+    private Robot[] initialRobotAt;
+    private int[] initialRobotsAt;
+    private int[] locationStamp;
+    
+    // Épocas de reabastecimiento y reinicio: tiendas, robots y ubicaciones las
+    // aplican de forma perezosa la primera vez que se consultan.
+    private int resupplyEpoch;
+    private int rebootEpoch;
+    private int initialTengesTotal;
+    
+    // Tiendas a las que un robot puede ir, para calculateOptimalMove
+    private StoreLocationTree storeTree;
+    private int storesPlaced;
+    private int robotsPlaced;
+    private GainLeaderboard leaderboard;
+    private boolean compactHistory;
     private int currentProfit;
+    private int availableTenges;
     private boolean ok;
     private String lastErrorMessage;
     
@@ -80,10 +109,25 @@ public class SilkRoad {
      */
     private void initializeSilkRoad(int length) {
         this.length = length;
-        this.stores = new ArrayList<>();
-        this.robots = new ArrayList<>();
+        this.storeTable = new StoreTable(this, 16);
+        this.robotTable = new RobotTable(this, 16);
+        this.storeAt = new Store[length];
+        this.robotAt = new Robot[length];
+        this.robotsAt = new int[length];
+        this.initialRobotAt = new Robot[length];
+        this.initialRobotsAt = new int[length];
+        this.locationStamp = new int[length];
+        this.resupplyEpoch = 0;
+        this.rebootEpoch = 0;
+        this.initialTengesTotal = 0;
+        this.storeTree = new StoreLocationTree();
+        this.storesPlaced = 0;
+        this.robotsPlaced = 0;
+        this.leaderboard = new GainLeaderboard(robotTable);
+        this.compactHistory = false;
         this.visible = false;
         this.currentProfit = 0;
+        this.availableTenges = 0;
         this.ok = true;
         this.lastErrorMessage = "";
         
@@ -156,47 +200,52 @@ public class SilkRoad {
         }
         
         String color = colorManager.getUniqueStoreColor();
+        String storeType = type.toLowerCase();
+        // La tienda autonoma elige su ubicacion antes de crearse, para revisar si esta libre
+        int storeLocation = storeType.equals("autonomous")
+            ? AutonomousStore.selectAutonomousLocation(location, length) : location;
+        
+        if (storeAt[storeLocation] != null) {
+            ok = false;
+            lastErrorMessage = "Ya existe una tienda en la ubicacion: " + storeLocation;
+            showErrorIfVisible();
+            return;
+        }
+        
+        long cell = spiralGrid.getSpiralPosition(storeLocation);
+        int x = SpiralGrid.xOf(cell);
+        int y = SpiralGrid.yOf(cell);
         Store newStore = null;
         
-        switch(type.toLowerCase()) {
+        // Cada tienda nace con su fila en storeTable
+        switch(storeType) {
             case "normal":
-                int[] coords = spiralGrid.getSpiralCoordinates(location);
-                newStore = new NormalStore(location, tenges, color, coords[0], coords[1]);
+                newStore = new NormalStore(this, location, tenges, color, x, y);
                 break;
             case "autonomous":
-                newStore = new AutonomousStore(location, tenges, color, length);
-                int actualLocation = newStore.getLocation();
-                int[] autonomousCoords = spiralGrid.getSpiralCoordinates(actualLocation);
-                newStore.visualRepresentation.setPosition(autonomousCoords[0], autonomousCoords[1]);
+                newStore = new AutonomousStore(this, location, storeLocation, tenges, color);
+                newStore.setVisualPosition(x, y);
                 break;
             case "fighter":
-                int[] fighterCoords = spiralGrid.getSpiralCoordinates(location);
-                newStore = new FighterStore(location, tenges, color, fighterCoords[0], fighterCoords[1]);
+                newStore = new FighterStore(this, location, tenges, color, x, y);
                 break;
             case "generous":
-                int[] generousCoords = spiralGrid.getSpiralCoordinates(location);
-                newStore = new GenerousStore(location, tenges, color, generousCoords[0], generousCoords[1]);
+                newStore = new GenerousStore(this, location, tenges, color, x, y);
                 break;
             default:
-                int[] defaultCoords = spiralGrid.getSpiralCoordinates(location);
-                newStore = new NormalStore(location, tenges, color, defaultCoords[0], defaultCoords[1]);
+                newStore = new NormalStore(this, location, tenges, color, x, y);
                 break;
         }
         
-        for (Store s : stores) {
-            if (s.getLocation() == newStore.getLocation()) {
-                ok = false;
-                lastErrorMessage = "Ya existe una tienda en la ubicacion: " + newStore.getLocation();
-                showErrorIfVisible();
-                return;
-            }
-        }
-        
-        if (!visible) {
-            newStore.makeInvisible();
+        if (visible) {
+            newStore.makeVisible();
         }
         
-        stores.add(newStore);
+        storeAt[storeLocation] = newStore;
+        storeTree.setOrder(storeLocation, storesPlaced++);
+        refreshStoreIndex(storeLocation);
+        availableTenges += newStore.getTenges();
+        initialTengesTotal += newStore.getInitialTenges();
         updateProgressBar();
         ok = true;
     }
@@ -210,7 +259,11 @@ public class SilkRoad {
         
         if (toRemove != null) {
             toRemove.makeInvisible();
-            stores.remove(toRemove);
+            storeAt[location] = null;
+            storeTree.remove(location);
+            availableTenges -= toRemove.getTenges();
+            initialTengesTotal -= toRemove.getInitialTenges();
+            toRemove.setOwner(null);
             updateProgressBar();
             ok = true;
         } else {
@@ -241,42 +294,49 @@ public class SilkRoad {
             return;
         }
         
-        for (Robot r : robots) {
-            if (r.getLocation() == location) {
-                ok = false;
-                lastErrorMessage = "Ya existe un robot en la ubicacion: " + location;
-                showErrorIfVisible();
-                return;
-            }
+        syncLocation(location);
+        if (robotsAt[location] > 0) {
+            ok = false;
+            lastErrorMessage = "Ya existe un robot en la ubicacion: " + location;
+            showErrorIfVisible();
+            return;
         }
         
-        int[] coords = spiralGrid.getSpiralCoordinates(location);
+        long cell = spiralGrid.getSpiralPosition(location);
+        int x = SpiralGrid.xOf(cell);
+        int y = SpiralGrid.yOf(cell);
         String color = colorManager.getUniqueRobotColor();
         Robot newRobot = null;
         
+        // Cada robot nace con su fila en robotTable
         switch(type.toLowerCase()) {
             case "normal":
-                newRobot = new NormalRobot(location, color, coords[0], coords[1]);
+                newRobot = new NormalRobot(this, location, color, x, y);
                 break;
             case "neverback":
-                newRobot = new NeverBackRobot(location, color, coords[0], coords[1]);
+                newRobot = new NeverBackRobot(this, location, color, x, y);
                 break;
             case "tender":
-                newRobot = new TenderRobot(location, color, coords[0], coords[1]);
+                newRobot = new TenderRobot(this, location, color, x, y);
                 break;
             case "greedy":
-                newRobot = new GreedyRobot(location, color, coords[0], coords[1]);
+                newRobot = new GreedyRobot(this, location, color, x, y);
                 break;
             default:
-                newRobot = new NormalRobot(location, color, coords[0], coords[1]);
+                newRobot = new NormalRobot(this, location, color, x, y);
                 break;
         }
         
-        if (!visible) {
-            newRobot.makeInvisible();
+        if (visible) {
+            newRobot.makeVisible();
         }
         
-        robots.add(newRobot);
+        newRobot.setCompactHistory(compactHistory);
+        newRobot.setPlacementOrder(robotsPlaced++);
+        indexRobot(newRobot);
+        initialRobotsAt[location]++;
+        initialRobotAt[location] = newRobot;
+        refreshStoreIndex(location);
         ok = true;
     }
     
@@ -289,7 +349,11 @@ public class SilkRoad {
         
         if (toRemove != null) {
             toRemove.makeInvisible();
-            robots.remove(toRemove);
+            // Primero sale de robotTable, para que los índices ya no lo encuentren
+            toRemove.setOwner(null);
+            unindexRobot(location);
+            unindexInitialRobot(toRemove.getInitialLocation());
+            leaderboard.robotDropped(toRemove);
             ok = true;
         } else {
             ok = false;
@@ -320,17 +384,18 @@ public class SilkRoad {
             return;
         }
         
-        for (Robot r : robots) {
-            if (r != robotToMove && r.getLocation() == newLocation) {
-                ok = false;
-                lastErrorMessage = "Ya hay un robot en la ubicacion destino";
-                showErrorIfVisible();
-                return;
-            }
+        syncLocation(newLocation);
+        int othersAtDestination = robotsAt[newLocation] - (newLocation == location ? 1 : 0);
+        if (othersAtDestination > 0) {
+            ok = false;
+            lastErrorMessage = "Ya hay un robot en la ubicacion destino";
+            showErrorIfVisible();
+            return;
         }
         
-        int[] newCoords = spiralGrid.getSpiralCoordinates(newLocation);
-        robotToMove.moveTo(newLocation, newCoords[0], newCoords[1]);
+        long newCell = spiralGrid.getSpiralPosition(newLocation);
+        robotToMove.moveTo(newLocation, SpiralGrid.xOf(newCell), SpiralGrid.yOf(newCell));
+        reindexRobot(robotToMove, location);
         
         Store store = findStore(newLocation);
         if (store != null && store.getTenges() > 0) {
@@ -370,18 +435,25 @@ public class SilkRoad {
     
     /**
      * Mueve todos los robots de forma óptima (Ciclo 2).
+     * Si el simulador es visible, el canvas se redibuja una sola vez al final.
      */
     public void moveRobots() {
         boolean anyMoved = false;
+        boolean batching = beginRedrawBatch();
         
-        for (Robot robot : robots) {
-            int currentLoc = robot.getLocation();
-            int bestMove = calculateOptimalMove(robot);
-            
-            if (bestMove != 0) {
-                moveRobot(currentLoc, bestMove);
-                anyMoved = true;
+        try {
+            for (int i = 0; i < robotTable.size(); i++) {
+                Robot robot = robotTable.view(i);
+                int currentLoc = robot.getLocation();
+                int bestMove = calculateOptimalMove(robot);
+                
+                if (bestMove != 0) {
+                    moveRobot(currentLoc, bestMove);
+                    anyMoved = true;
+                }
             }
+        } finally {
+            commitRedrawBatch(batching);
         }
         
         if (!anyMoved) {
@@ -393,50 +465,41 @@ public class SilkRoad {
     
     /**
      * Calcula el mejor movimiento para un robot.
+     * Elige la tienda con dinero y sin robots que maximiza tenges / (2 * distancia);
+     * en empate gana la tienda colocada primero. La búsqueda se hace en storeTree
+     * en tiempo logarítmico en lugar de recorrer tiendas y robots.
      * @param robot Robot a mover. No debe ser null
      * @return Metros a mover (0 si no hay movimiento beneficioso)
      */
     private int calculateOptimalMove(Robot robot) {
         int currentLocation = robot.getLocation();
-        int bestMove = 0;
-        double maxValue = 0;
-        
-        for (Store store : stores) {
-            if (store.getTenges() > 0) {
-                int storeLocation = store.getLocation();
-                int distance = Math.abs(storeLocation - currentLocation);
-                
-                if (distance > 0) {
-                    boolean occupied = false;
-                    for (Robot other : robots) {
-                        if (other != robot && other.getLocation() == storeLocation) {
-                            occupied = true;
-                            break;
-                        }
-                    }
-                    
-                    if (!occupied) {
-                        double value = (double) store.getTenges() / (distance * 2);
-                        if (value > maxValue) {
-                            maxValue = value;
-                            bestMove = storeLocation - currentLocation;
-                        }
-                    }
-                }
-            }
-        }
+        int target = storeTree.bestTarget(currentLocation);
         
-        return bestMove;
+        return target < 0 ? 0 : target - currentLocation;
     }
     
     /**
      * Reabastece todas las tiendas a su cantidad inicial.
+     * Solo avanza la época de reabastecimiento (O(1)); cada tienda se pone al día la
+     * primera vez que se consulta. Si el simulador es visible se actualizan todas
+     * de una vez para que el dibujo no quede atrasado.
      */
     public void resupplyStores() {
-        for (Store s : stores) {
-            s.resupply();
+        resupplyEpoch++;
+        storeTree.resupplyAll();
+        availableTenges = initialTengesTotal;
+        
+        boolean batching = beginRedrawBatch();
+        try {
+            if (visible) {
+                for (int i = 0; i < storeTable.size(); i++) {
+                    storeTable.view(i).sync();
+                }
+            }
+            updateProgressBar();
+        } finally {
+            commitRedrawBatch(batching);
         }
-        updateProgressBar();
         ok = true;
     }
     
@@ -444,10 +507,18 @@ public class SilkRoad {
      * Devuelve todos los robots a posición inicial.
      */
     public void returnRobots() {
-        for (Robot r : robots) {
-            int initialLocation = r.getInitialLocation();
-            int[] coords = spiralGrid.getSpiralCoordinates(initialLocation);
-            r.returnToInitialPosition(coords[0], coords[1]);
+        boolean batching = beginRedrawBatch();
+        try {
+            for (int i = 0; i < robotTable.size(); i++) {
+                Robot r = robotTable.view(i);
+                int previousLocation = r.getLocation();
+                int initialLocation = r.getInitialLocation();
+                long cell = spiralGrid.getSpiralPosition(initialLocation);
+                r.returnToInitialPosition(SpiralGrid.xOf(cell), SpiralGrid.yOf(cell));
+                reindexRobot(r, previousLocation);
+            }
+        } finally {
+            commitRedrawBatch(batching);
         }
         ok = true;
     }
@@ -455,73 +526,174 @@ public class SilkRoad {
     /**
      * Reinicia el simulador (simula pasar un día).
      * Reabastece tiendas y devuelve robots a posiciones iniciales.
+     * Como resupplyStores(), solo avanza las épocas en O(1) y tiendas, robots y el
+     * índice por ubicación se ponen al día de forma perezosa (o de inmediato si el
+     * simulador es visible).
      */
     public void reboot() {
-        for (Store s : stores) {
-            s.reset();
-        }
-        
-        for (Robot r : robots) {
-            int[] coords = spiralGrid.getSpiralCoordinates(r.getInitialLocation());
-            r.returnToInitialPosition(coords[0], coords[1]);
-            r.reset();
-        }
+        resupplyEpoch++;
+        rebootEpoch++;
+        storeTree.rebootAll();
+        leaderboard.cleared();
+        availableTenges = initialTengesTotal;
         
         currentProfit = 0;
-        updateProgressBar();
+        boolean batching = beginRedrawBatch();
+        try {
+            if (visible) {
+                for (int i = 0; i < storeTable.size(); i++) {
+                    storeTable.view(i).sync();
+                }
+                for (int i = 0; i < robotTable.size(); i++) {
+                    robotTable.view(i).sync();
+                }
+            }
+            updateProgressBar();
+        } finally {
+            commitRedrawBatch(batching);
+        }
         ok = true;
     }
     
     /**
      * Obtiene la ganancia máxima posible.
+     * Usa los totales que se mantienen al cambiar el dinero de las tiendas, así que es O(1).
      * @return Ganancia actual más tenges disponibles en todas las tiendas
      */
     public final int profit() {
-        int maxPossible = currentProfit;
-        for (Store s : stores) {
-            maxPossible += s.getTenges();
-        }
-        return maxPossible;
+        return currentProfit + availableTenges;
+    }
+    
+    /**
+     * Registra el cambio de dinero de una tienda de este simulador.
+     * Lo llama la tienda desde takeTenges y resupply.
+     * @param store Tienda que cambió
+     * @param previousTenges Dinero de la tienda antes del cambio
+     */
+    void storeTengesChanged(Store store, int previousTenges) {
+        availableTenges += store.getTenges() - previousTenges;
+        refreshStoreIndex(store.getLocation());
+    }
+    
+    /**
+     * Avisa que un robot ganó tenges, para mantener el líder en O(1).
+     * @param robot Robot que ganó
+     */
+    void robotGainAdded(Robot robot) {
+        leaderboard.gainAdded(robot);
+    }
+    
+    /**
+     * Avisa que un robot volvió a ganancia 0 fuera de un reboot().
+     * @param robot Robot reiniciado
+     */
+    void robotGainReset(Robot robot) {
+        leaderboard.robotDropped(robot);
+    }
+    
+    /**
+     * Obtiene las columnas de las tiendas de este simulador.
+     * @return Tabla de tiendas
+     */
+    StoreTable storeTable() {
+        return storeTable;
+    }
+    
+    /**
+     * Obtiene las columnas de los robots de este simulador.
+     * @return Tabla de robots
+     */
+    RobotTable robotTable() {
+        return robotTable;
+    }
+    
+    /**
+     * Obtiene la época de reabastecimiento (avanza en resupplyStores y reboot).
+     * @return Época actual
+     */
+    int resupplyEpoch() {
+        return resupplyEpoch;
+    }
+    
+    /**
+     * Obtiene la época de reinicio (avanza en reboot).
+     * @return Época actual
+     */
+    int rebootEpoch() {
+        return rebootEpoch;
     }
     
     /**
      * Obtiene info de tiendas.
+     * Lee las columnas de storeTable en orden, sin pasar por cada Store.
      * @return Array int[][] donde cada fila es [ubicación, tenges actual]
      */
     public int[][] stores() {
-        int[][] result = new int[stores.size()][2];
-        for (int i = 0; i < stores.size(); i++) {
-            Store s = stores.get(i);
-            result[i][0] = s.getLocation();
-            result[i][1] = s.getTenges();
+        int[][] result = new int[storeTable.size()][2];
+        for (int i = 0; i < result.length; i++) {
+            storeTable.sync(i);
+            result[i][0] = storeTable.location(i);
+            result[i][1] = storeTable.tenges(i);
         }
         return result;
     }
     
     /**
      * Obtiene info de robots.
+     * Lee las columnas de robotTable en orden, sin pasar por cada Robot.
      * @return Array int[][] donde cada fila es [ubicación actual, ganancia total]
      */
     public int[][] robots() {
-        int[][] result = new int[robots.size()][2];
-        for (int i = 0; i < robots.size(); i++) {
-            Robot r = robots.get(i);
+        int[][] result = new int[robotTable.size()][2];
+        for (int i = 0; i < result.length; i++) {
+            robotTable.sync(i);
+            result[i][0] = robotTable.location(i);
+            result[i][1] = robotTable.totalGain(i);
+        }
+        return result;
+    }
+    
+    /**
+     * Obtiene los robots con mayor ganancia.
+     * @param k Número de robots a listar
+     * @return Array int[][] con a lo sumo k filas [ubicación actual, ganancia total],
+     *         de mayor a menor ganancia (en empate, el colocado primero)
+     */
+    public int[][] topRobots(int k) {
+        List<Robot> best = leaderboard.top(k);
+        int[][] result = new int[best.size()][2];
+        for (int i = 0; i < best.size(); i++) {
+            Robot r = best.get(i);
             result[i][0] = r.getLocation();
             result[i][1] = r.getTotalGain();
         }
         return result;
     }
     
+    /**
+     * Elige si los robots guardan su historial de ganancias comprimido, para
+     * simulaciones con muchísimos movimientos. Aplica a los robots actuales y a los
+     * que se coloquen después; los resultados no cambian.
+     * @param compact true para comprimir los historiales
+     */
+    public void setCompactGainsHistory(boolean compact) {
+        compactHistory = compact;
+        for (int i = 0; i < robotTable.size(); i++) {
+            robotTable.view(i).setCompactHistory(compact);
+        }
+        ok = true;
+    }
+    
     /**
      * Obtiene tiendas vaciadas (Ciclo 2).
      * @return Array int[][] donde cada fila es [ubicación tienda, veces que fue vaciada]
      */
     public int[][] emptiedStores() {
-        int[][] result = new int[stores.size()][2];
-        for (int i = 0; i < stores.size(); i++) {
-            Store s = stores.get(i);
-            result[i][0] = s.getLocation();
-            result[i][1] = s.getTimesEmptied();
+        int[][] result = new int[storeTable.size()][2];
+        for (int i = 0; i < result.length; i++) {
+            storeTable.sync(i);
+            result[i][0] = storeTable.location(i);
+            result[i][1] = storeTable.timesEmptied(i);
         }
         return result;
     }
@@ -531,21 +703,15 @@ public class SilkRoad {
      * @return Array int[][] donde cada fila es un robot y cada columna es ganancia por movimiento
      */
     public int[][] profitPerMove() {
-        List<List<Integer>> allGains = new ArrayList<>();
         int maxMoves = 0;
-        
-        for (Robot r : robots) {
-            List<Integer> gains = r.getGainsHistory();
-            allGains.add(gains);
-            maxMoves = Math.max(maxMoves, gains.size());
+        for (int i = 0; i < robotTable.size(); i++) {
+            robotTable.sync(i);
+            maxMoves = Math.max(maxMoves, robotTable.history(i).size());
         }
         
-        int[][] result = new int[robots.size()][maxMoves];
-        for (int i = 0; i < robots.size(); i++) {
-            List<Integer> gains = allGains.get(i);
-            for (int j = 0; j < gains.size(); j++) {
-                result[i][j] = gains.get(j);
-            }
+        int[][] result = new int[robotTable.size()][maxMoves];
+        for (int i = 0; i < result.length; i++) {
+            robotTable.history(i).copyTo(result[i], 0);
         }
         
         return result;
@@ -581,11 +747,16 @@ public class SilkRoad {
     public void makeVisible() {
         visible = true;
         Canvas.getCanvas().setVisible(true);
-        spiralGrid.makeVisible();
-        progressBar.makeVisible();
-        
-        for (Store s : stores) s.makeVisible();
-        for (Robot r : robots) r.makeVisible();
+        boolean batching = beginRedrawBatch();
+        try {
+            spiralGrid.makeVisible();
+            progressBar.makeVisible();
+            
+            for (int i = 0; i < storeTable.size(); i++) storeTable.view(i).makeVisible();
+            for (int i = 0; i < robotTable.size(); i++) robotTable.view(i).makeVisible();
+        } finally {
+            commitRedrawBatch(batching);
+        }
         
         updateBlinkingRobot();
     }
@@ -594,12 +765,40 @@ public class SilkRoad {
      * Hace invisible el simulador ocultando todos los elementos.
      */
     public void makeInvisible() {
+        boolean batching = beginRedrawBatch();
         visible = false;
-        spiralGrid.makeInvisible();
-        progressBar.makeInvisible();
-        
-        for (Store s : stores) s.makeInvisible();
-        for (Robot r : robots) r.makeInvisible();
+        try {
+            spiralGrid.makeInvisible();
+            progressBar.makeInvisible();
+            
+            for (int i = 0; i < storeTable.size(); i++) storeTable.view(i).makeInvisible();
+            for (int i = 0; i < robotTable.size(); i++) robotTable.view(i).makeInvisible();
+        } finally {
+            commitRedrawBatch(batching);
+        }
+    }
+    
+    /**
+     * Empieza a agrupar los redibujos del canvas si el simulador es visible, para
+     * que una operación sobre muchos objetos cueste un solo repintado.
+     * @return true si se abrió un lote que hay que cerrar con commitRedrawBatch
+     */
+    private boolean beginRedrawBatch() {
+        if (!visible) {
+            return false;
+        }
+        Canvas.getCanvas().beginBatch();
+        return true;
+    }
+    
+    /**
+     * Cierra el lote abierto por beginRedrawBatch y redibuja una vez.
+     * @param batching Valor devuelto por beginRedrawBatch
+     */
+    private void commitRedrawBatch(boolean batching) {
+        if (batching) {
+            Canvas.getCanvas().commitBatch();
+        }
     }
     
     /**
@@ -618,26 +817,138 @@ public class SilkRoad {
      * @return Robot encontrado o null si no existe
      */
     private Robot findRobot(int location) {
-        for (Robot r : robots) {
-            if (r.getLocation() == location) {
-                return r;
+        if (location < 0 || location >= length) {
+            return null;
+        }
+        syncLocation(location);
+        if (robotsAt[location] == 0) {
+            return null;
+        }
+        if (robotsAt[location] == 1) {
+            return robotAt[location];
+        }
+        return scanRobot(location);
+    }
+    
+    /**
+     * Busca recorriendo la columna de ubicaciones el primer robot en una ubicación.
+     * Solo se usa cuando varios robots comparten la ubicación.
+     * @param location Ubicación del robot buscado
+     * @return Primer robot en esa ubicación o null si no existe
+     */
+    private Robot scanRobot(int location) {
+        for (int i = 0; i < robotTable.size(); i++) {
+            robotTable.sync(i);
+            if (robotTable.location(i) == location) {
+                return robotTable.view(i);
             }
         }
         return null;
     }
     
+    /**
+     * Registra un robot en el índice por ubicación.
+     * @param robot Robot ya agregado a la lista
+     */
+    private void indexRobot(Robot robot) {
+        int location = robot.getLocation();
+        syncLocation(location);
+        robotsAt[location]++;
+        robotAt[location] = robot;
+        refreshStoreIndex(location);
+    }
+    
+    /**
+     * Quita un robot del índice por ubicación.
+     * @param location Ubicación en la que estaba indexado
+     */
+    private void unindexRobot(int location) {
+        syncLocation(location);
+        robotsAt[location]--;
+        if (robotsAt[location] == 0) {
+            robotAt[location] = null;
+        } else if (robotsAt[location] == 1) {
+            robotAt[location] = scanRobot(location);
+        }
+        refreshStoreIndex(location);
+    }
+    
+    /**
+     * Quita un robot del índice de ubicaciones iniciales.
+     * @param location Ubicación inicial del robot
+     */
+    private void unindexInitialRobot(int location) {
+        initialRobotsAt[location]--;
+        if (initialRobotsAt[location] == 0) {
+            initialRobotAt[location] = null;
+        } else if (initialRobotsAt[location] == 1) {
+            for (int i = 0; i < robotTable.size(); i++) {
+                if (robotTable.initialLocation(i) == location) {
+                    initialRobotAt[location] = robotTable.view(i);
+                    break;
+                }
+            }
+        }
+        refreshStoreIndex(location);
+    }
+    
+    /**
+     * Aplica a una ubicación el último reinicio si no lo ha visto: tras reboot()
+     * cada robot está en su ubicación inicial.
+     * @param location Ubicación a poner al día
+     */
+    private void syncLocation(int location) {
+        if (locationStamp[location] != rebootEpoch) {
+            locationStamp[location] = rebootEpoch;
+            robotsAt[location] = initialRobotsAt[location];
+            robotAt[location] = initialRobotAt[location];
+        }
+    }
+    
+    /**
+     * Actualiza el índice después de que un robot cambió de ubicación.
+     * @param robot Robot que pudo haberse movido
+     * @param previousLocation Ubicación antes del cambio
+     */
+    private void reindexRobot(Robot robot, int previousLocation) {
+        if (robot.getLocation() != previousLocation) {
+            unindexRobot(previousLocation);
+            indexRobot(robot);
+        }
+    }
+    
+    /**
+     * Actualiza en storeTree la tienda de una ubicación: cuenta con sus tenges
+     * solo si existe, tiene dinero y no hay robots en ella. También guarda lo que
+     * valdría tras reabastecer (robots donde están) y tras reiniciar (robots en su
+     * ubicación inicial). Las ubicaciones sin tienda no están en el árbol (removeStore
+     * ya quitó la suya), así que no hay nada que actualizar.
+     * @param location Ubicación a actualizar
+     */
+    private void refreshStoreIndex(int location) {
+        Store store = storeAt[location];
+        if (store == null) {
+            return;
+        }
+        syncLocation(location);
+        boolean free = robotsAt[location] == 0;
+        boolean freeAfterReboot = initialRobotsAt[location] == 0;
+        storeTree.update(location,
+                         free ? store.getTenges() : 0,
+                         free ? store.getInitialTenges() : 0,
+                         freeAfterReboot ? store.getInitialTenges() : 0);
+    }
+    
     /**
      * Busca una tienda por su ubicación.
      * @param location Ubicación de la tienda buscada
      * @return Tienda encontrada o null si no existe
      */
     private Store findStore(int location) {
-        for (Store s : stores) {
-            if (s.getLocation() == location) {
-                return s;
-            }
+        if (location < 0 || location >= length) {
+            return null;
         }
-        return null;
+        return storeAt[location];
     }
     
     /**
@@ -651,22 +962,14 @@ public class SilkRoad {
     
     /**
      * Hace parpadear el robot con mayor ganancia (Ciclo 2).
+     * El líder lo mantiene leaderboard, así que no se recorren los robots.
      */
     private void updateBlinkingRobot() {
         if (!visible) return;
         
-        Robot maxRobot = null;
-        int maxGain = 0;
-        
-        for (Robot r : robots) {
-            if (r.getTotalGain() > maxGain) {
-                maxGain = r.getTotalGain();
-                maxRobot = r;
-            }
-        }
-        
-        if (maxRobot != null && maxGain > 0) {
-            maxRobot.blink(3);
+        Robot leader = leaderboard.leader();
+        if (leader != null) {
+            leader.blink(3);
         }
     }
     
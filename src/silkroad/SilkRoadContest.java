@@ -1,5 +1,17 @@
 package silkroad; 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Clase para resolver el problema de la maratón ICPC 2024.
@@ -9,24 +21,82 @@ import java.util.*;
  */
 public class SilkRoadContest {
     
-    private List<Event> events;
+    // Elementos que procesa solve(Duration) entre dos revisiones del plazo
+    private static final int CHECK_INTERVAL = 1 << 12;
+    
+    private ContestEvents events;
     private long[] dailyProfits;
+    private long[] dayLatencies;
     private int numDays;
     
+    // Estado persistente del solver incremental
+    private ContestPoints points;
+    private int solvedEvents;
+    private SolverWorkspace workspace;
+    private ForkJoinPool pool;
+    
     /**
-     * Clase interna para representar un evento.
+     * Tarea fork/join que llena filas de la tabla plana robotProfit.
+     * Divide primero por robots y luego cada fila por rangos de máscaras; cada
+     * celda se calcula con la misma fórmula que en modo secuencial.
      */
-    private static class Event {
-        int day;
-        int type;
-        int location;
-        int tenges;
+    private static class RobotProfitTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private static final int MASK_CHUNK = 1 << 12;
+        
+        private final ContestPoints points;
+        private final long[] robotProfit;
+        private final int firstRow;
+        private final int firstRobot;
+        private final int lastRobot;
+        private final RouteEvaluator evaluator;
+        private final int firstMask;
+        private final int lastMask;
+        
+        RobotProfitTask(ContestPoints points, long[] robotProfit, int firstRow,
+                        int firstRobot, int lastRobot) {
+            this(points, robotProfit, firstRow, firstRobot, lastRobot, null, 0, 1 << points.storeCount());
+        }
         
-        Event(int day, int type, int location, int tenges) {
-            this.day = day;
-            this.type = type;
-            this.location = location;
-            this.tenges = tenges;
+        private RobotProfitTask(ContestPoints points, long[] robotProfit, int firstRow,
+                                int firstRobot, int lastRobot, RouteEvaluator evaluator,
+                                int firstMask, int lastMask) {
+            this.points = points;
+            this.robotProfit = robotProfit;
+            this.firstRow = firstRow;
+            this.firstRobot = firstRobot;
+            this.lastRobot = lastRobot;
+            this.evaluator = evaluator;
+            this.firstMask = firstMask;
+            this.lastMask = lastMask;
+        }
+        
+        @Override
+        protected void compute() {
+            if (lastRobot - firstRobot > 1) {
+                int middle = (firstRobot + lastRobot) >>> 1;
+                invokeAll(new RobotProfitTask(points, robotProfit, firstRow, firstRobot, middle),
+                          new RobotProfitTask(points, robotProfit, firstRow, middle, lastRobot));
+                return;
+            }
+            
+            RouteEvaluator prepared = evaluator;
+            if (prepared == null) {
+                prepared = new RouteEvaluator();
+                prepared.prepare(points.robotLocation(firstRobot), points);
+            }
+            
+            if (lastMask - firstMask <= MASK_CHUNK) {
+                int offset = (firstRobot - firstRow) << points.storeCount();
+                prepared.fillRange(robotProfit, offset, firstMask, lastMask);
+                return;
+            }
+            
+            int middle = (firstMask + lastMask) >>> 1;
+            invokeAll(new RobotProfitTask(points, robotProfit, firstRow, firstRobot, lastRobot,
+                                          prepared, firstMask, middle),
+                      new RobotProfitTask(points, robotProfit, firstRow, firstRobot, lastRobot,
+                                          prepared, middle, lastMask));
         }
     }
     
@@ -35,9 +105,44 @@ public class SilkRoadContest {
      * @param n Número de días
      */
     public SilkRoadContest(int n) {
+        this(n, new ContestEvents(n));
+    }
+    
+    /**
+     * Constructor común: usa las columnas de eventos dadas como almacenamiento.
+     * @param n Número de días
+     * @param events Eventos (se usan sin copiarlos)
+     */
+    private SilkRoadContest(int n, ContestEvents events) {
         this.numDays = n;
-        this.events = new ArrayList<>();
+        this.events = events;
         this.dailyProfits = new long[n];
+        this.dayLatencies = new long[n];
+        this.points = new ContestPoints();
+        this.solvedEvents = 0;
+        this.workspace = new SolverWorkspace();
+        this.pool = null;
+    }
+    
+    /**
+     * Constructor que recibe el número de días y un pool para el modo paralelo.
+     * La tabla robotProfit se construye en el pool; la combinación de la DP sigue
+     * siendo secuencial, así que los resultados son idénticos al modo secuencial.
+     * @param n Número de días
+     * @param pool Pool fork/join a usar (null para modo secuencial)
+     */
+    public SilkRoadContest(int n, ForkJoinPool pool) {
+        this(n);
+        this.pool = pool;
+    }
+    
+    /**
+     * Constructor que recibe eventos ya cargados en columnas.
+     * Las columnas se usan directamente como almacenamiento, sin copiarlas.
+     * @param events Eventos de la maratón
+     */
+    public SilkRoadContest(ContestEvents events) {
+        this(events.getNumDays(), events);
     }
     
     /**
@@ -48,160 +153,402 @@ public class SilkRoadContest {
      * @param tenges Cantidad de tenges (solo para tiendas)
      */
     public void addEvent(int day, int type, int location, int tenges) {
-        events.add(new Event(day, type, location, tenges));
+        events.add(day, type, location, tenges);
+    }
+    
+    /**
+     * Agrega todos los eventos de un conjunto en columnas, en su orden.
+     * @param columns Eventos a agregar
+     */
+    public void addEvents(ContestEvents columns) {
+        for (int i = 0; i < columns.size(); i++) {
+            addEvent(columns.getDay(i), columns.getType(i), columns.getLocation(i), columns.getTenges(i));
+        }
     }
     
     /**
      * Resuelve el problema completo y calcula las ganancias máximas diarias.
+     * Es incremental: el estado del solver se conserva entre llamadas, así que solo
+     * se procesan los eventos agregados desde la última llamada. Un robot nuevo solo
+     * agrega una capa a la DP; una tienda nueva cambia el espacio de máscaras y obliga
+     * a reconstruirla. Las capas de la DP viven en un workspace reutilizable, así que
+     * en estado estable no se reserva memoria por evento.
      * @return Array con la ganancia máxima de cada día
      */
     public long[] solve() {
-        List<Integer> robotLocations = new ArrayList<>();
-        List<int[]> storeData = new ArrayList<>();
-        
-        for (Event event : events) {
-            if (event.type == 1) {
-                robotLocations.add(event.location);
-            } else if (event.type == 2) {
-                storeData.add(new int[]{event.location, event.tenges});
+        for (int i = solvedEvents; i < events.size(); i++) {
+            int type = events.getType(i);
+            
+            if (type == 1) {
+                int robot = points.addRobot(events.getLocation(i));
+                long[] robotProfit = computeRobotProfit(points, robot, robot + 1,
+                                                        workspace, pool != null);
+                workspace.addRobotLayer(robotProfit, 0);
+            } else if (type == 2) {
+                points.addStore(events.getLocation(i), events.getTenges(i));
+                buildLayers(points, workspace, pool != null);
             }
             
-            dailyProfits[event.day] = calculateMaxProfit(robotLocations, storeData);
+            dailyProfits[events.getDay(i)] = workspace.maxProfit();
         }
+        solvedEvents = events.size();
         
         return dailyProfits;
     }
     
     /**
-     * Calcula la máxima ganancia usando DP con bitmask.
-     * @param robots Lista de ubicaciones de robots
-     * @param stores Lista de tiendas [ubicación, tenges]
-     * @return Ganancia máxima
+     * Resuelve todos los días en paralelo cuando los eventos se conocen de antemano.
+     * La respuesta de un día solo depende del prefijo de eventos hasta ese día, así que
+     * cada día se evalúa por separado con su propia copia del prefijo. Los días se
+     * reparten entre tantas tareas como hilos tenga el pool: cada tarea toma el
+     * siguiente día de una cola compartida y reutiliza su propio workspace, que se
+     * descarta al terminar, así que los hilos del pool no se quedan con memoria.
+     * Usa el pool configurado (o el pool común) y llena dailyProfits en cualquier orden;
+     * la latencia de cada día queda disponible en getDayLatencies().
+     * @return Array con la ganancia máxima de cada día
+     * @throws IllegalStateException si alguna tarea falla o el hilo es interrumpido
      */
-    private long calculateMaxProfit(List<Integer> robots, List<int[]> stores) {
-        if (robots.isEmpty() || stores.isEmpty()) {
-            return 0;
+    public long[] solveOffline() {
+        ForkJoinPool executor = pool != null ? pool : ForkJoinPool.commonPool();
+        
+        int[] lastEventOfDay = new int[numDays];
+        Arrays.fill(lastEventOfDay, -1);
+        for (int i = 0; i < events.size(); i++) {
+            lastEventOfDay[events.getDay(i)] = i;
         }
         
-        int n = stores.size();
-        int m = robots.size();
+        // Los días más largos primero para repartir mejor la carga
+        int[] queue = new int[numDays];
+        int queued = 0;
+        for (int day = numDays - 1; day >= 0; day--) {
+            if (lastEventOfDay[day] >= 0) {
+                queue[queued++] = day;
+            }
+        }
         
-        long[][] robotProfit = new long[m][1 << n];
+        final int dayCount = queued;
+        AtomicInteger next = new AtomicInteger();
+        int workers = Math.max(1, Math.min(executor.getParallelism(), dayCount));
+        List<Callable<Void>> tasks = new ArrayList<>(workers);
+        for (int w = 0; w < workers; w++) {
+            tasks.add(() -> {
+                SolverWorkspace local = new SolverWorkspace();
+                for (int k = next.getAndIncrement(); k < dayCount; k = next.getAndIncrement()) {
+                    solveDayFromPrefix(queue[k], lastEventOfDay[queue[k]], local);
+                }
+                return null;
+            });
+        }
         
-        for (int r = 0; r < m; r++) {
-            int robotPos = robots.get(r);
-            
-            for (int mask = 0; mask < (1 << n); mask++) {
-                robotProfit[r][mask] = calculateBestRouteForRobot(robotPos, mask, stores);
+        try {
+            for (Future<Void> result : executor.invokeAll(tasks)) {
+                result.get();
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Resolucion fuera de linea interrumpida", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error al resolver un dia: " + e.getCause(), e.getCause());
         }
         
-        long[][] dp = new long[m + 1][1 << n];
+        return dailyProfits;
+    }
+    
+    /**
+     * Resuelve con un presupuesto de tiempo en el hilo que llama.
+     * Primero calcula una cota inferior rápida (la mejor pareja robot-tienda de cada
+     * día) y luego refina los días en orden con la DP exacta sobre la línea
+     * ({@link RoadProfitTree}), que da el óptimo de cada día en O(log n) por evento.
+     * El plazo y la interrupción del hilo se revisan cada {@value #CHECK_INTERVAL}
+     * elementos en cada recorrido de la preparación y luego entre eventos, así que
+     * la llamada termina poco después del presupuesto aunque no haya refinado todo.
+     * Si el plazo se acaba durante la cota, los días que no alcanzó quedan en 0.
+     * No modifica el estado del solver incremental.
+     * @param budget Tiempo máximo de resolución
+     * @return Ganancia de cada día y si está demostrada óptima
+     */
+    public ContestSolution solve(Duration budget) {
+        long deadline = System.nanoTime() + budget.toNanos();
+        int size = events.size();
+        long[] profits = new long[numDays];
+        boolean[] optimal = new boolean[numDays];
+        
+        // Los días sin eventos valen 0, igual que en solve()
+        if (!markEmptyDays(optimal, deadline)) {
+            return new ContestSolution(profits, optimal);
+        }
         
-        for (int i = 0; i <= m; i++) {
-            Arrays.fill(dp[i], Long.MIN_VALUE / 2);
+        // Ambas pasadas comparten el orden por ubicación; sin tiempo para ordenar no hay cota
+        int[] locations = copyLocations(deadline);
+        int[] order = locations == null ? null : orderByLocation(locations, deadline);
+        int[] sorted = order == null ? null : new int[size];
+        int unique = order == null ? -1 : uniqueLocations(locations, order, sorted, deadline);
+        if (unique < 0) {
+            return new ContestSolution(profits, optimal);
         }
-        dp[0][0] = 0;
         
-        // Para cada robot
-        for (int robot = 0; robot < m; robot++) {
-            for (int mask = 0; mask < (1 << n); mask++) {
-                if (dp[robot][mask] == Long.MIN_VALUE / 2) continue;
-                
-                dp[robot + 1][mask] = Math.max(dp[robot + 1][mask], dp[robot][mask]);
-                
-                int remaining = ((1 << n) - 1) ^ mask;
-                
-                for (int subset = remaining; subset > 0; subset = (subset - 1) & remaining) {
-                    long gain = robotProfit[robot][subset];
-                    if (gain > 0) {
-                        int newMask = mask | subset;
-                        dp[robot + 1][newMask] = Math.max(dp[robot + 1][newMask], 
-                                                          dp[robot][mask] + gain);
-                    }
-                }
+        // Cota inferior: si se acaba el tiempo, los días restantes quedan en 0
+        PairProfitBound bound = new PairProfitBound(sorted, unique);
+        for (int i = 0; i < size; i++) {
+            if (expired(deadline)) {
+                return new ContestSolution(profits, optimal);
+            }
+            if (events.getType(i) == 1) {
+                profits[events.getDay(i)] = bound.addRobot(events.getLocation(i));
+            } else if (events.getType(i) == 2) {
+                profits[events.getDay(i)] = bound.addStore(events.getLocation(i), events.getTenges(i));
+            } else {
+                profits[events.getDay(i)] = bound.best();
             }
         }
         
-        long maxProfit = 0;
-        for (int mask = 0; mask < (1 << n); mask++) {
-            maxProfit = Math.max(maxProfit, dp[m][mask]);
+        // Refinamiento exacto: un día queda demostrado al procesar su último evento.
+        // El árbol reserva memoria proporcional a los eventos, así que solo se construye con tiempo.
+        if (expired(deadline)) {
+            return new ContestSolution(profits, optimal);
+        }
+        RoadProfitTree road = new RoadProfitTree(size);
+        for (int start = 0; start < size; start += CHECK_INTERVAL) {
+            if (expired(deadline)) {
+                return new ContestSolution(profits, optimal);
+            }
+            road.placePoints(locations, order, start, Math.min(size, start + CHECK_INTERVAL));
+        }
+        for (int i = 0; i < size && !expired(deadline); i++) {
+            if (events.getType(i) == 1) {
+                road.addRobot(i);
+            } else if (events.getType(i) == 2) {
+                road.addStore(i, events.getTenges(i));
+            }
+            
+            int day = events.getDay(i);
+            if (i + 1 == size || events.getDay(i + 1) != day) {
+                profits[day] = road.maxProfit();
+                optimal[day] = true;
+            }
         }
         
-        return maxProfit;
+        return new ContestSolution(profits, optimal);
     }
     
     /**
-     * Calcula la mejor ruta para un robot visitando un subconjunto específico de tiendas.
-     * Usa DP estilo TSP: dp[mask][last] = máxima ganancia visitando tiendas en mask, terminando en last.
-     * @param startPos Posición inicial del robot
-     * @param storeMask Máscara de tiendas a visitar
-     * @param stores Lista de todas las tiendas
-     * @return Máxima ganancia posible
+     * Marca como óptimos los días sin eventos, que valen 0. Si el presupuesto se
+     * acaba a mitad de camino, los días marcados hasta ahí siguen siendo correctos.
+     * @param optimal Días demostrados (todos en false al llamar)
+     * @param deadline Instante límite según System.nanoTime()
+     * @return true si revisó todos los días
      */
-    private long calculateBestRouteForRobot(int startPos, int storeMask, List<int[]> stores) {
-        if (storeMask == 0) return 0;
-        
-        int n = stores.size();
-        
-        List<Integer> toVisit = new ArrayList<>();
-        for (int i = 0; i < n; i++) {
-            if ((storeMask & (1 << i)) != 0) {
-                toVisit.add(i);
+    private boolean markEmptyDays(boolean[] optimal, long deadline) {
+        int size = events.size();
+        boolean[] hasEvents = new boolean[numDays];
+        for (int start = 0; start < size; start += CHECK_INTERVAL) {
+            if (expired(deadline)) {
+                return false;
+            }
+            int end = Math.min(size, start + CHECK_INTERVAL);
+            for (int i = start; i < end; i++) {
+                hasEvents[events.getDay(i)] = true;
             }
         }
-        
-        int k = toVisit.size();
-        if (k == 0) return 0;
-        
-        long[][] dp = new long[1 << k][k];
-        for (int i = 0; i < (1 << k); i++) {
-            Arrays.fill(dp[i], Long.MIN_VALUE / 2);
+        for (int start = 0; start < numDays; start += CHECK_INTERVAL) {
+            if (expired(deadline)) {
+                return false;
+            }
+            int end = Math.min(numDays, start + CHECK_INTERVAL);
+            for (int day = start; day < end; day++) {
+                optimal[day] = !hasEvents[day];
+            }
         }
-        
-        for (int j = 0; j < k; j++) {
-            int storeIdx = toVisit.get(j);
-            long storeLoc = stores.get(storeIdx)[0];
-            long storeTenges = stores.get(storeIdx)[1];
-            long distance = Math.abs(startPos - storeLoc);
-            long profit = storeTenges - distance;
-            
-            dp[1 << j][j] = profit;
+        return true;
+    }
+    
+    /**
+     * Copia las ubicaciones de los eventos por bloques, revisando el plazo entre bloques.
+     * @param deadline Instante límite según System.nanoTime()
+     * @return Ubicación de cada evento, o null si el presupuesto se acabó antes de terminar
+     */
+    private int[] copyLocations(long deadline) {
+        int size = events.size();
+        int[] locations = new int[size];
+        for (int start = 0; start < size; start += CHECK_INTERVAL) {
+            if (expired(deadline)) {
+                return null;
+            }
+            events.copyLocations(start, Math.min(size, start + CHECK_INTERVAL), locations);
+        }
+        return locations;
+    }
+    
+    /**
+     * Ordena los índices de los eventos por (ubicación, índice) con radix sort
+     * estable de cuatro pasadas de 8 bits. Cada recorrido revisa el plazo cada
+     * {@value #CHECK_INTERVAL} elementos.
+     * @param locations Ubicación de cada evento
+     * @param deadline Instante límite según System.nanoTime()
+     * @return Índices en orden, o null si el presupuesto se acabó antes de terminar
+     */
+    private int[] orderByLocation(int[] locations, long deadline) {
+        int n = locations.length;
+        int[] order = new int[n];
+        int[] buffer = new int[n];
+        for (int start = 0; start < n; start += CHECK_INTERVAL) {
+            if (expired(deadline)) {
+                return null;
+            }
+            int end = Math.min(n, start + CHECK_INTERVAL);
+            for (int i = start; i < end; i++) {
+                order[i] = i;
+            }
         }
         
-        for (int mask = 0; mask < (1 << k); mask++) {
-            for (int last = 0; last < k; last++) {
-                if ((mask & (1 << last)) == 0) continue;
-                if (dp[mask][last] <= Long.MIN_VALUE / 2) continue;
-                
-                int lastStoreIdx = toVisit.get(last);
-                long lastLoc = stores.get(lastStoreIdx)[0];
-                
-                for (int next = 0; next < k; next++) {
-                    if ((mask & (1 << next)) != 0) continue;
-                    
-                    int nextStoreIdx = toVisit.get(next);
-                    long nextLoc = stores.get(nextStoreIdx)[0];
-                    long nextTenges = stores.get(nextStoreIdx)[1];
-                    long distance = Math.abs(lastLoc - nextLoc);
-                    long profit = nextTenges - distance;
-                    
-                    int newMask = mask | (1 << next);
-                    dp[newMask][next] = Math.max(dp[newMask][next], dp[mask][last] + profit);
+        int[] count = new int[257];
+        for (int shift = 0; shift < 32; shift += 8) {
+            Arrays.fill(count, 0);
+            for (int start = 0; start < n; start += CHECK_INTERVAL) {
+                if (expired(deadline)) {
+                    return null;
+                }
+                int end = Math.min(n, start + CHECK_INTERVAL);
+                for (int i = start; i < end; i++) {
+                    count[digit(locations[order[i]], shift) + 1]++;
+                }
+            }
+            for (int d = 0; d < 256; d++) {
+                count[d + 1] += count[d];
+            }
+            for (int start = 0; start < n; start += CHECK_INTERVAL) {
+                if (expired(deadline)) {
+                    return null;
+                }
+                int end = Math.min(n, start + CHECK_INTERVAL);
+                for (int i = start; i < end; i++) {
+                    buffer[count[digit(locations[order[i]], shift)]++] = order[i];
                 }
             }
+            int[] swap = order;
+            order = buffer;
+            buffer = swap;
         }
-        
-        long maxProfit = 0;
-        for (int mask = 0; mask < (1 << k); mask++) {
-            for (int last = 0; last < k; last++) {
-                if (dp[mask][last] > Long.MIN_VALUE / 2) {
-                    maxProfit = Math.max(maxProfit, dp[mask][last]);
+        return order;
+    }
+    
+    /**
+     * Escribe las ubicaciones distintas en orden creciente, revisando el plazo cada
+     * {@value #CHECK_INTERVAL} eventos.
+     * @param locations Ubicación de cada evento
+     * @param order Índices de los eventos ordenados por ubicación
+     * @param sorted Array de destino (del tamaño de order)
+     * @param deadline Instante límite según System.nanoTime()
+     * @return Número de ubicaciones distintas, o -1 si el presupuesto se acabó antes de terminar
+     */
+    private int uniqueLocations(int[] locations, int[] order, int[] sorted, long deadline) {
+        int unique = 0;
+        for (int start = 0; start < order.length; start += CHECK_INTERVAL) {
+            if (expired(deadline)) {
+                return -1;
+            }
+            int end = Math.min(order.length, start + CHECK_INTERVAL);
+            for (int k = start; k < end; k++) {
+                int location = locations[order[k]];
+                if (unique == 0 || sorted[unique - 1] != location) {
+                    sorted[unique++] = location;
                 }
             }
         }
+        return unique;
+    }
+    
+    /**
+     * Obtiene un dígito de 8 bits de una ubicación, con el bit de signo invertido
+     * para que las ubicaciones negativas queden antes.
+     */
+    private static int digit(int location, int shift) {
+        return ((location ^ Integer.MIN_VALUE) >>> shift) & 0xFF;
+    }
+    
+    /**
+     * Indica si se acabó el presupuesto o el hilo fue interrumpido.
+     * @param deadline Instante límite según System.nanoTime()
+     * @return true si hay que dejar de refinar
+     */
+    private boolean expired(long deadline) {
+        return System.nanoTime() - deadline >= 0 || Thread.currentThread().isInterrupted();
+    }
+    
+    /**
+     * Evalúa un día desde cero con una copia del prefijo de eventos.
+     * @param day Día a evaluar
+     * @param lastEvent Índice del último evento de ese día
+     * @param local Workspace de la tarea que evalúa el día
+     */
+    private void solveDayFromPrefix(int day, int lastEvent, SolverWorkspace local) {
+        long start = System.nanoTime();
+        
+        ContestPoints prefix = local.points();
+        prefix.clear();
+        for (int i = 0; i <= lastEvent; i++) {
+            int type = events.getType(i);
+            if (type == 1) {
+                prefix.addRobot(events.getLocation(i));
+            } else if (type == 2) {
+                prefix.addStore(events.getLocation(i), events.getTenges(i));
+            }
+        }
+        
+        long profit = 0;
+        if (prefix.robotCount() > 0 && prefix.storeCount() > 0) {
+            buildLayers(prefix, local, false);
+            profit = local.maxProfit();
+        }
         
-        return maxProfit;
+        dailyProfits[day] = profit;
+        dayLatencies[day] = System.nanoTime() - start;
+    }
+    
+    /**
+     * Construye desde cero la DP con bitmask de todos los robots sobre todas las tiendas.
+     * Los bits de las máscaras siguen el orden de las tiendas por ubicación; la DP es
+     * simétrica respecto a ese orden. El resultado queda como capa actual del workspace.
+     * @param points Robots y tiendas ordenados por ubicación
+     * @param workspace Memoria de trabajo del hilo que llama
+     * @param parallel true para llenar la tabla robotProfit en el pool
+     */
+    private void buildLayers(ContestPoints points, SolverWorkspace workspace, boolean parallel) {
+        int n = points.storeCount();
+        int m = points.robotCount();
+        
+        long[] robotProfit = computeRobotProfit(points, 0, m, workspace, parallel);
+        
+        workspace.resetLayer(n);
+        for (int robot = 0; robot < m; robot++) {
+            workspace.addRobotLayer(robotProfit, robot << n);
+        }
+    }
+    
+    /**
+     * Calcula filas de la tabla robotProfit: la ganancia de cada robot para cada
+     * máscara de tiendas. La fila de firstRobot empieza en la posición 0 de la tabla.
+     * @param points Robots y tiendas ordenados por ubicación
+     * @param firstRobot Primer robot a calcular (inclusivo)
+     * @param lastRobot Último robot a calcular (exclusivo)
+     * @param workspace Memoria de trabajo del hilo que llama
+     * @param parallel true para llenar la tabla en el pool
+     * @return Tabla plana del workspace indexada por ((robot - firstRobot) << n) + máscara
+     */
+    private long[] computeRobotProfit(ContestPoints points, int firstRobot, int lastRobot,
+                                      SolverWorkspace workspace, boolean parallel) {
+        int n = points.storeCount();
+        long[] robotProfit = workspace.robotProfit(lastRobot - firstRobot, n);
+        
+        if (parallel && lastRobot > firstRobot) {
+            pool.invoke(new RobotProfitTask(points, robotProfit, firstRobot, firstRobot, lastRobot));
+        } else {
+            RouteEvaluator evaluator = workspace.evaluator();
+            for (int r = firstRobot; r < lastRobot; r++) {
+                evaluator.fill(points.robotLocation(r), points, robotProfit, (r - firstRobot) << n);
+            }
+        }
+        return robotProfit;
     }
     
     /**
@@ -211,18 +558,21 @@ public class SilkRoadContest {
     public void simulate(SilkRoad silkRoad) {
         System.out.println("=== SIMULANDO SOLUCIÓN DE LA MARATÓN ===");
         
-        for (Event event : events) {
+        for (int i = 0; i < events.size(); i++) {
+            int day = events.getDay(i);
+            int location = events.getLocation(i);
+            
             try {
                 Thread.sleep(300);
             } catch (InterruptedException e) {}
             
-            if (event.type == 1) {
-                silkRoad.placeRobot(event.location);
-                System.out.println("Día " + (event.day + 1) + ": Robot agregado en posición " + event.location);
-            } else if (event.type == 2) {
-                silkRoad.placeStore(event.location, event.tenges);
-                System.out.println("Día " + (event.day + 1) + ": Tienda agregada en posición " + 
-                                 event.location + " con " + event.tenges + " tenges");
+            if (events.getType(i) == 1) {
+                silkRoad.placeRobot(location);
+                System.out.println("Día " + (day + 1) + ": Robot agregado en posición " + location);
+            } else if (events.getType(i) == 2) {
+                silkRoad.placeStore(location, events.getTenges(i));
+                System.out.println("Día " + (day + 1) + ": Tienda agregada en posición " + 
+                                 location + " con " + events.getTenges(i) + " tenges");
             }
             
             silkRoad.resupplyStores();
@@ -234,7 +584,7 @@ public class SilkRoadContest {
             
             silkRoad.moveRobots();
             
-            System.out.println("Día " + (event.day + 1) + ": Ganancia máxima = " + dailyProfits[event.day]);
+            System.out.println("Día " + (day + 1) + ": Ganancia máxima = " + dailyProfits[day]);
             
             try {
                 Thread.sleep(1000);
@@ -252,6 +602,14 @@ public class SilkRoadContest {
         return dailyProfits.clone();
     }
     
+    /**
+     * Obtiene la latencia de cada día medida por solveOffline().
+     * @return Array con los nanosegundos que tomó resolver cada día (0 si no se evaluó)
+     */
+    public long[] getDayLatencies() {
+        return dayLatencies.clone();
+    }
+    
     /**
      * Método estático para resolver desde entrada estándar de la maratón.
      * @param input Entrada en formato de la maratón
@@ -278,4 +636,40 @@ public class SilkRoadContest {
         
         return contest.solve();
     }
+    
+    /**
+     * Resuelve desde un flujo con la entrada de la maratón sin cargarla completa en memoria.
+     * @param input Flujo con la entrada en formato de la maratón
+     * @return Array con las ganancias diarias
+     * @throws IOException si falla la lectura
+     * @throws IllegalArgumentException si la entrada es inválida
+     */
+    public static long[] solveFromInput(InputStream input) throws IOException {
+        return solveFromInput(Channels.newChannel(input));
+    }
+    
+    /**
+     * Resuelve desde un canal con la entrada de la maratón.
+     * Los enteros se leen directamente de un buffer de bytes a columnas primitivas,
+     * sin cargar toda la entrada en un String.
+     * @param channel Canal con la entrada en formato de la maratón
+     * @return Array con las ganancias diarias
+     * @throws IOException si falla la lectura
+     * @throws IllegalArgumentException si la entrada es inválida
+     */
+    public static long[] solveFromInput(ReadableByteChannel channel) throws IOException {
+        return new SilkRoadContest(ContestEvents.fromChannel(channel)).solve();
+    }
+    
+    /**
+     * Resuelve desde un archivo con la entrada de la maratón mapeándolo en memoria.
+     * Sirve para archivos de varios GB: se leen por ventanas sin pasar por un String.
+     * @param file Archivo con la entrada en formato de la maratón
+     * @return Array con las ganancias diarias
+     * @throws IOException si falla la lectura
+     * @throws IllegalArgumentException si la entrada es inválida
+     */
+    public static long[] solveFromFile(Path file) throws IOException {
+        return new SilkRoadContest(ContestEvents.fromFile(file)).solve();
+    }
 }
@@ -0,0 +1,120 @@
+package silkroad;
+
+/**
+ * Segundo motor para el problema de la maratón ICPC 2024 "The Silk Road... with Robots!".
+ * Tiene el mismo contrato que {@link SilkRoadContest} (addEvent / solve) pero aprovecha
+ * que la ruta es una línea: cada robot barre un intervalo que contiene su posición y
+ * los robots nunca se cruzan, así que la ganancia máxima se mantiene con un
+ * árbol de segmentos ordenado por ubicación en O(log n) por evento.
+ * Una ejecución completa cuesta O(n log n), suficiente para 2·10^5 eventos.
+ *
+ * @author Santiago Andres Gomez Rojas y Miguel Angel Sandoval
+ */
+public class SilkRoadLineContest {
+
+    private ContestEvents events;
+    private long[] dailyProfits;
+    private int numDays;
+
+    /**
+     * Constructor que recibe el número de días.
+     * @param n Número de días
+     */
+    public SilkRoadLineContest(int n) {
+        this(n, new ContestEvents(n));
+    }
+
+    /**
+     * Constructor que recibe eventos ya cargados en columnas (por ejemplo con
+     * {@link ContestEvents#fromFile}). Las columnas se usan directamente, sin copiarlas.
+     * @param events Eventos de la maratón
+     */
+    public SilkRoadLineContest(ContestEvents events) {
+        this(events.getNumDays(), events);
+    }
+
+    private SilkRoadLineContest(int n, ContestEvents events) {
+        this.numDays = n;
+        this.events = events;
+        this.dailyProfits = new long[n];
+    }
+
+    /**
+     * Agrega un evento de un día.
+     * @param day Número de día (0-indexed)
+     * @param type Tipo: 1=robot, 2=tienda
+     * @param location Ubicación en la ruta
+     * @param tenges Cantidad de tenges (solo para tiendas)
+     */
+    public void addEvent(int day, int type, int location, int tenges) {
+        events.add(day, type, location, tenges);
+    }
+
+    /**
+     * Resuelve el problema completo y calcula las ganancias máximas diarias.
+     * @return Array con la ganancia máxima de cada día
+     */
+    public long[] solve() {
+        int[] locations = new int[events.size()];
+        for (int i = 0; i < locations.length; i++) {
+            locations[i] = events.getLocation(i);
+        }
+        RoadProfitTree road = new RoadProfitTree(locations);
+
+        for (int i = 0; i < events.size(); i++) {
+            int type = events.getType(i);
+            if (type == 1) {
+                road.addRobot(i);
+            } else if (type == 2) {
+                road.addStore(i, events.getTenges(i));
+            }
+
+            dailyProfits[events.getDay(i)] = road.maxProfit();
+        }
+
+        return dailyProfits;
+    }
+
+    /**
+     * Obtiene las ganancias diarias calculadas.
+     * @return Array con las ganancias de cada día
+     */
+    public long[] getDailyProfits() {
+        return dailyProfits.clone();
+    }
+
+    /**
+     * Obtiene el número de días del problema.
+     * @return Número de días
+     */
+    public int getNumDays() {
+        return numDays;
+    }
+
+    /**
+     * Método estático para resolver desde entrada estándar de la maratón.
+     * @param input Entrada en formato de la maratón
+     * @return Array con las ganancias diarias
+     */
+    public static long[] solveFromInput(String input) {
+        String[] lines = input.trim().split("\n");
+        int n = Integer.parseInt(lines[0].trim());
+
+        SilkRoadLineContest contest = new SilkRoadLineContest(n);
+
+        for (int i = 1; i <= n; i++) {
+            String[] parts = lines[i].trim().split("\\s+");
+            int type = Integer.parseInt(parts[0]);
+            int location = Integer.parseInt(parts[1]);
+            int tenges = 0;
+
+            if (type == 2 && parts.length > 2) {
+                tenges = Integer.parseInt(parts[2]);
+            }
+
+            contest.addEvent(i - 1, type, location, tenges);
+        }
+
+        return contest.solve();
+    }
+}
@@ -0,0 +1,126 @@
+package silkroad;
+
+import java.util.Arrays;
+
+/**
+ * Memoria de trabajo reutilizable del solver con bitmask.
+ * Guarda la DP en dos filas que se alternan (la capa actual y la siguiente) en vez
+ * de una capa nueva por robot, y la tabla robotProfit en un solo arreglo plano
+ * indexado por (fila << n) + máscara. Los arreglos solo crecen, al menos al doble,
+ * así que en estado estable resolver un día no reserva memoria.
+ *
+ * No es seguro entre hilos: cada hilo que resuelve usa su propio workspace.
+ *
+ * @author Santiago Andres Gomez Rojas y Miguel Angel Sandoval
+ */
+class SolverWorkspace {
+    /** Valor de las máscaras que ninguna asignación alcanza. */
+    static final long UNREACHABLE = Long.MIN_VALUE / 2;
+
+    private final RouteEvaluator evaluator;
+    private final ContestPoints points;
+    private long[] current;
+    private long[] next;
+    private long[] robotProfit;
+    private int layerSize;
+
+    /**
+     * Crea un workspace con la capa de cero tiendas.
+     */
+    SolverWorkspace() {
+        this.evaluator = new RouteEvaluator();
+        this.points = new ContestPoints();
+        this.current = new long[1];
+        this.next = new long[1];
+        this.robotProfit = new long[1];
+        resetLayer(0);
+    }
+
+    /**
+     * Obtiene el evaluador de rutas de este workspace.
+     * @return Evaluador reutilizable
+     */
+    RouteEvaluator evaluator() {
+        return evaluator;
+    }
+
+    /**
+     * Obtiene un conjunto de puntos reutilizable (para reconstruir un día desde cero).
+     * @return Puntos de trabajo
+     */
+    ContestPoints points() {
+        return points;
+    }
+
+    /**
+     * Reinicia la DP sin robots: solo la máscara vacía es alcanzable.
+     * @param storeCount Número de tiendas
+     */
+    void resetLayer(int storeCount) {
+        layerSize = 1 << storeCount;
+        if (current.length < layerSize) {
+            int capacity = Math.max(layerSize, current.length * 2);
+            current = new long[capacity];
+            next = new long[capacity];
+        }
+        Arrays.fill(current, 0, layerSize, UNREACHABLE);
+        current[0] = 0;
+    }
+
+    /**
+     * Obtiene la tabla plana robotProfit con espacio para varias filas.
+     * Su contenido anterior no se conserva si tiene que crecer.
+     * @param rows Número de robots
+     * @param storeCount Número de tiendas
+     * @return Tabla indexada por (fila << storeCount) + máscara
+     */
+    long[] robotProfit(int rows, int storeCount) {
+        int needed = Math.multiplyExact(rows, 1 << storeCount);
+        if (robotProfit.length < needed) {
+            robotProfit = new long[Math.max(needed, robotProfit.length * 2)];
+        }
+        return robotProfit;
+    }
+
+    /**
+     * Agrega un robot a la DP: dp'[mask | subset] = dp[mask] + ganancia(subset).
+     * Escribe la capa nueva en la otra fila y luego las intercambia.
+     * @param profit Tabla con la ganancia del robot por máscara
+     * @param offset Posición de la máscara vacía del robot dentro de profit
+     */
+    void addRobotLayer(long[] profit, int offset) {
+        int full = layerSize - 1;
+        long[] dp = current;
+        long[] out = next;
+        System.arraycopy(dp, 0, out, 0, layerSize);
+
+        for (int mask = 0; mask <= full; mask++) {
+            if (dp[mask] == UNREACHABLE) continue;
+
+            int remaining = full ^ mask;
+
+            for (int subset = remaining; subset > 0; subset = (subset - 1) & remaining) {
+                long gain = profit[offset + subset];
+                if (gain > 0) {
+                    int newMask = mask | subset;
+                    out[newMask] = Math.max(out[newMask], dp[mask] + gain);
+                }
+            }
+        }
+
+        next = dp;
+        current = out;
+    }
+
+    /**
+     * Obtiene la mejor ganancia de la capa actual.
+     * @return Ganancia máxima (nunca negativa)
+     */
+    long maxProfit() {
+        long maxProfit = 0;
+        for (int mask = 0; mask < layerSize; mask++) {
+            maxProfit = Math.max(maxProfit, current[mask]);
+        }
+        return maxProfit;
+    }
+}
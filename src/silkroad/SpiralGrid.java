@@ -1,18 +1,23 @@
 package silkroad;   
 
-import shapes.Rectangle; 
+import shapes.Canvas;
+import java.awt.Dimension;
+import java.awt.geom.Path2D;
 
 /**
  * Clase para manejar la cuadricula en espiral del simulador.
  * Posiciona correctamente los elementos dentro de la espiral.
+ * La posicion de cada celda se calcula con una formula cerrada, sin tablas, asi
+ * que la geometria no ocupa memoria aunque la ruta sea muy larga.
+ * Al hacerse visible solo se dibujan las celdas que caen dentro del lienzo,
+ * todas juntas como una sola figura, asi que el costo de dibujo no depende de
+ * la longitud de la ruta.
  * 
  * @author Santiago Andres Gomez Rojas y Miguel Angel Sandoval
  */
 public class SpiralGrid {
-    private Rectangle[][] grid;
     private int gridSize;
     private boolean visible;
-    private int[][] spiralCoords; 
     private int length;
     private static final int CELL_SIZE = 30;
     private static final int START_X = 50;
@@ -25,82 +30,120 @@ public class SpiralGrid {
     public SpiralGrid(int roadLength) {
         this.length = roadLength;
         this.gridSize = (int) Math.ceil(Math.sqrt(roadLength)) + 4;
-        this.grid = new Rectangle[gridSize][gridSize];
         this.visible = false;
-        this.spiralCoords = new int[roadLength][2];
-        calculateSpiralCoordinates();
-        createSpiralPath();
     }
 
     /**
-     * Calcula todas las coordenadas de la espiral de una vez.
-     * Centra la espiral y posiciona correctamente cada celda.
+     * Calcula la celda (relativa al centro) de una posicion de la espiral.
+     * La espiral avanza derecha 1, abajo 1, izquierda 2, arriba 2, derecha 3...
+     * Tras k pares de tramos (k(k+1) pasos) queda en la esquina ((k+1)/2, (k+1)/2)
+     * si k es impar o en (-k/2, -k/2) si es par, y el par k+1 recorre k+1 celdas
+     * a la derecha y abajo (k par) o a la izquierda y arriba (k impar).
+     * @param position Posicion en la espiral (>= 0)
+     * @return Celda empaquetada con pack(dx, dy)
      */
-    private void calculateSpiralCoordinates() {
-        int centerX = gridSize / 2;
-        int centerY = gridSize / 2;
-        
-        spiralCoords[0][0] = START_X + centerX * CELL_SIZE + CELL_SIZE / 2;
-        spiralCoords[0][1] = START_Y + centerY * CELL_SIZE + CELL_SIZE / 2;
-        
-        if (length == 1) return;
-        
-        int x = centerX;
-        int y = centerY;
-        
-        int[] dx = {1, 0, -1, 0};
-        int[] dy = {0, 1, 0, -1};
-        int direction = 0;
-        
-        int steps = 1;
-        int stepsTaken = 0;
-        int directionsChanged = 0;
-        
-        for (int i = 1; i < length; i++) {
-            x += dx[direction];
-            y += dy[direction];
-            
-            spiralCoords[i][0] = START_X + x * CELL_SIZE + CELL_SIZE / 2;
-            spiralCoords[i][1] = START_Y + y * CELL_SIZE + CELL_SIZE / 2;
-            
-            stepsTaken++;
-            
-            if (stepsTaken == steps) {
-                stepsTaken = 0;
-                direction = (direction + 1) % 4;
-                directionsChanged++;
-                
-                if (directionsChanged % 2 == 0) {
-                    steps++;
-                }
-            }
+    public static long spiralCell(long position) {
+        long k = (long) ((Math.sqrt(4.0 * position + 1) - 1) / 2);
+        while (k * (k + 1) > position) {
+            k--;
+        }
+        while ((k + 1) * (k + 2) <= position) {
+            k++;
+        }
+
+        long corner = (k % 2 == 1) ? (k + 1) / 2 : -k / 2;
+        long side = k + 1;
+        long rest = position - k * (k + 1);
+        long first = Math.min(rest, side);
+        long second = rest - first;
+
+        if (k % 2 == 0) {
+            return pack((int) (corner + first), (int) (corner + second));
+        }
+        return pack((int) (corner - first), (int) (corner - second));
+    }
+
+    /**
+     * Empaqueta un par de enteros en un long (x en los 32 bits altos).
+     * @param x Coordenada X
+     * @param y Coordenada Y
+     * @return Par empaquetado
+     */
+    public static long pack(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Obtiene la coordenada X de un par empaquetado.
+     * @param packed Par empaquetado con pack
+     * @return Coordenada X
+     */
+    public static int xOf(long packed) {
+        return (int) (packed >> 32);
+    }
+
+    /**
+     * Obtiene la coordenada Y de un par empaquetado.
+     * @param packed Par empaquetado con pack
+     * @return Coordenada Y
+     */
+    public static int yOf(long packed) {
+        return (int) packed;
+    }
+
+    /**
+     * Calcula la posicion de la espiral que ocupa una celda (inversa de spiralCell).
+     * Cada celda esta en exactamente un tramo: derecha en y = -t o abajo en
+     * x = t + 1 (par 2t + 1), o izquierda en y = h o arriba en x = -h (par 2h).
+     * @param x Columna relativa al centro
+     * @param y Fila relativa al centro
+     * @return Posicion en la espiral
+     */
+    public static long spiralIndex(int x, int y) {
+        if (x == 0 && y == 0) {
+            return 0;
+        }
+        long t = -y;
+        if (t >= 0 && x >= -t + 1 && x <= t + 1) {
+            long k = 2 * t;
+            return k * (k + 1) + (x + t);
+        }
+        t = x - 1;
+        if (t >= 0 && y >= -t + 1 && y <= t + 1) {
+            long k = 2 * t;
+            return k * (k + 1) + (k + 1) + (y + t);
         }
+        long h = y;
+        if (h >= 1 && x >= -h && x <= h - 1) {
+            long k = 2 * h - 1;
+            return k * (k + 1) + (h - x);
+        }
+        h = -x;
+        long k = 2 * h - 1;
+        return k * (k + 1) + (k + 1) + (h - y);
     }
 
     /**
-     * Crea la representacion visual de la espiral (INVISIBLE por defecto).
+     * Construye el camino de la espiral con las celdas visibles en el lienzo.
+     * @param viewport Tamaño del lienzo
+     * @return Figura con un rectangulo por celda visible
      */
-    private void createSpiralPath() {
-        for (int i = 0; i < length; i++) {
-            Rectangle cell = new Rectangle();
-            cell.changeColor("lightgray");
-            cell.changeSize(CELL_SIZE - 5, CELL_SIZE - 5);
-            
-            // Posiciona el rectángulo en el centro de la celda
-            int x = spiralCoords[i][0] - (CELL_SIZE - 5) / 2;
-            int y = spiralCoords[i][1] - (CELL_SIZE - 5) / 2;
-            
-            cell.moveHorizontal(x);
-            cell.moveVertical(y);
-            
-            cell.makeInvisible();
-            
-            int row = i / gridSize;
-            int col = i % gridSize;
-            if (row < gridSize && col < gridSize) {
-                grid[row][col] = cell;
+    private Path2D buildVisiblePath(Dimension viewport) {
+        Path2D.Float path = new Path2D.Float();
+        int side = CELL_SIZE - 5;
+        int offset = CELL_SIZE / 2 - side / 2;
+        int center = gridSize / 2;
+
+        for (int row = 0; row < gridSize && START_Y + row * CELL_SIZE + offset < viewport.height; row++) {
+            for (int col = 0; col < gridSize && START_X + col * CELL_SIZE + offset < viewport.width; col++) {
+                if (spiralIndex(col - center, row - center) < length) {
+                    path.append(new java.awt.Rectangle(START_X + col * CELL_SIZE + offset,
+                                                       START_Y + row * CELL_SIZE + offset,
+                                                       side, side), false);
+                }
             }
         }
+        return path;
     }
 
     /**
@@ -109,10 +152,23 @@ public class SpiralGrid {
      * @return Array con [x, y] coordenadas CENTRADAS en la celda
      */
     public int[] getSpiralCoordinates(int position) {
+        long center = getSpiralPosition(position);
+        return new int[]{xOf(center), yOf(center)};
+    }
+
+    /**
+     * Obtiene las coordenadas visuales de una posicion sin reservar memoria.
+     * @param position Posicion en la espiral
+     * @return Coordenadas [x, y] CENTRADAS en la celda, empaquetadas con pack
+     */
+    public long getSpiralPosition(int position) {
         if (position < 0 || position >= length) {
-            return new int[]{200, 200};
+            return pack(200, 200);
         }
-        return new int[]{spiralCoords[position][0], spiralCoords[position][1]};
+        long cell = spiralCell(position);
+        int center = gridSize / 2;
+        return pack(START_X + (center + xOf(cell)) * CELL_SIZE + CELL_SIZE / 2,
+                    START_Y + (center + yOf(cell)) * CELL_SIZE + CELL_SIZE / 2);
     }
 
     /**
@@ -128,27 +184,18 @@ public class SpiralGrid {
      */
     public void makeVisible() {
         visible = true;
-        for (int i = 0; i < gridSize; i++) {
-            for (int j = 0; j < gridSize; j++) {
-                if (grid[i][j] != null) {
-                    grid[i][j].makeVisible();
-                }
-            }
-        }
+        Canvas canvas = Canvas.getCanvas();
+        canvas.draw(this, "lightgray", buildVisiblePath(canvas.getSize()));
     }
 
     /**
      * Hace invisible la espiral.
      */
     public void makeInvisible() {
-        visible = false;
-        for (int i = 0; i < gridSize; i++) {
-            for (int j = 0; j < gridSize; j++) {
-                if (grid[i][j] != null) {
-                    grid[i][j].makeInvisible();
-                }
-            }
+        if (visible) {
+            Canvas.getCanvas().erase(this);
         }
+        visible = false;
     }
 
     /**
@@ -6,17 +6,23 @@ import java.awt.*;
 /**
  * Clase abstracta base para todas las tiendas en la Ruta de la Seda.
  * Define comportamiento comun y permite extensibilidad mediante herencia.
+ * La representacion visual se crea solo la primera vez que la tienda se hace
+ * visible, asi que el modelo puede usarse sin tocar el canvas.
+ * Cuando el simulador reabastece o reinicia todas las tiendas solo avanza una
+ * epoca; cada tienda aplica el cambio la primera vez que se consulta despues.
+ * Los datos de la tienda (ubicacion, tenges, veces vaciada) viven en una fila de
+ * StoreTable: la del simulador dueño, o una propia si la tienda esta suelta. Las
+ * tiendas que coloca el simulador se crean directamente en su tabla.
  * 
  * @author Santiago Andres Gomez Rojas y Miguel Angel Sandoval
  */
 public abstract class Store {
     protected Rectangle visualRepresentation;
-    protected int location;
-    protected int tenges;
-    protected int initialTenges;
-    protected int timesEmptied;
-    protected boolean isEmpty;
     protected String originalColor;
+    private int visualX;
+    private int visualY;
+    private StoreTable table;
+    private int row;
     
     /**
      * Constructor protegido para subclases.
@@ -27,18 +33,25 @@ public abstract class Store {
      * @param y Coordenada Y visual en pixels
      */
     protected Store(int location, int tenges, String color, int x, int y) {
-        this.location = location;
-        this.tenges = tenges;
-        this.initialTenges = tenges;
-        this.timesEmptied = 0;
-        this.isEmpty = (tenges == 0);
+        this(null, location, tenges, color, x, y);
+    }
+    
+    /**
+     * Constructor para subclases que crea la fila en la tabla del simulador.
+     * @param owner Simulador dueño (null para una tienda suelta con tabla propia)
+     * @param location Posicion en la ruta (0 <= location < length)
+     * @param tenges Cantidad inicial de dinero (>= 0)
+     * @param color Color de la tienda para visualizacion
+     * @param x Coordenada X visual en pixels
+     * @param y Coordenada Y visual en pixels
+     */
+    Store(SilkRoad owner, int location, int tenges, String color, int x, int y) {
+        this.table = owner == null ? new StoreTable(null, 1) : owner.storeTable();
+        this.row = table.add(this, location, tenges);
         this.originalColor = color;
-        
-        this.visualRepresentation = new Rectangle();
-        visualRepresentation.changeColor(isEmpty ? "gray" : color);
-        visualRepresentation.changeSize(30, 30);
-        visualRepresentation.setPosition(x, y);
-        visualRepresentation.makeVisible();
+        this.visualX = x;
+        this.visualY = y;
+        this.visualRepresentation = null;
     }
     
     /**
@@ -46,7 +59,7 @@ public abstract class Store {
      * @return Ubicacion (posicion en la ruta)
      */
     public int getLocation() {
-        return location;
+        return table.location(row);
     }
     
     /**
@@ -54,7 +67,8 @@ public abstract class Store {
      * @return Cantidad de tenges disponibles
      */
     public int getTenges() {
-        return tenges;
+        sync();
+        return table.tenges(row);
     }
     
     /**
@@ -62,7 +76,7 @@ public abstract class Store {
      * @return Tenges iniciales
      */
     public int getInitialTenges() {
-        return initialTenges;
+        return table.initialTenges(row);
     }
     
     /**
@@ -70,7 +84,8 @@ public abstract class Store {
      * @return Veces que la tienda fue vaciada completamente
      */
     public int getTimesEmptied() {
-        return timesEmptied;
+        sync();
+        return table.timesEmptied(row);
     }
     
     /**
@@ -89,19 +104,21 @@ public abstract class Store {
      * @return Cantidad realmente tomada (puede ser menor que lo solicitado)
      */
     public int takeTenges(int amount, Robot robot) {
+        sync();
         if (!canRobotTake(robot)) {
             return 0;
         }
         
-        int taken = Math.min(amount, tenges);
-        tenges -= taken;
+        int previousTenges = table.tenges(row);
+        int taken = Math.min(amount, previousTenges);
+        table.setTenges(row, previousTenges - taken);
         
-        if (tenges == 0 && taken > 0) {
-            timesEmptied++;
-            isEmpty = true;
-            visualRepresentation.changeColor("gray");
+        if (previousTenges == taken && taken > 0) {
+            table.setTimesEmptied(row, table.timesEmptied(row) + 1);
+            changeVisualColor("gray");
         }
         
+        notifyOwner(previousTenges);
         return taken;
     }
     
@@ -110,11 +127,13 @@ public abstract class Store {
      * Restaura el color original si la tienda estaba vacia.
      */
     public void resupply() {
-        this.tenges = initialTenges;
-        if (tenges > 0) {
-            isEmpty = false;
-            visualRepresentation.changeColor(originalColor);
+        sync();
+        int previousTenges = table.tenges(row);
+        table.setTenges(row, table.initialTenges(row));
+        if (table.initialTenges(row) > 0) {
+            changeVisualColor(originalColor);
         }
+        notifyOwner(previousTenges);
     }
     
     /**
@@ -123,7 +142,7 @@ public abstract class Store {
      */
     public void reset() {
         resupply();
-        timesEmptied = 0;
+        table.setTimesEmptied(row, 0);
     }
     
     /**
@@ -141,9 +160,89 @@ public abstract class Store {
     public abstract String getType();
     
     /**
-     * Hace visible la tienda en el canvas.
+     * Cambia la posicion visual de la tienda.
+     * @param x Coordenada X visual en pixels
+     * @param y Coordenada Y visual en pixels
+     */
+    public void setVisualPosition(int x, int y) {
+        visualX = x;
+        visualY = y;
+        if (visualRepresentation != null) {
+            visualRepresentation.setPosition(x, y);
+        }
+    }
+    
+    /**
+     * Asigna el simulador que lleva los totales de dinero de esta tienda.
+     * La fila de la tienda pasa a la tabla del simulador (o a una propia al
+     * quitarla) y queda al dia con las epocas actuales del simulador. Solo se
+     * crea una tabla propia si la fila de verdad tiene que salir de la actual.
+     * @param owner Simulador dueño de la tienda (null al quitarla)
+     */
+    void setOwner(SilkRoad owner) {
+        if (table.owner() == owner) {
+            return;
+        }
+        sync();
+        StoreTable target = owner == null ? new StoreTable(null, 1) : owner.storeTable();
+        int newRow = target.adopt(table, row);
+        table.remove(row);
+        table = target;
+        row = newRow;
+    }
+    
+    /**
+     * Cambia la fila de la tienda cuando su tabla corre las filas.
+     * @param newRow Fila nueva
+     */
+    void moveToRow(int newRow) {
+        row = newRow;
+    }
+    
+    /**
+     * Aplica los reabastecimientos y reinicios globales ocurridos desde la ultima
+     * consulta. No avisa al simulador: sus totales ya cuentan con el cambio.
+     */
+    void sync() {
+        if (table.sync(row) && table.tenges(row) > 0) {
+            changeVisualColor(originalColor);
+        }
+    }
+    
+    /**
+     * Avisa al simulador dueño que cambió el dinero de la tienda.
+     * @param previousTenges Dinero antes del cambio
+     */
+    private void notifyOwner(int previousTenges) {
+        SilkRoad owner = table.owner();
+        if (owner != null && previousTenges != table.tenges(row)) {
+            owner.storeTengesChanged(this, previousTenges);
+        }
+    }
+    
+    /**
+     * Cambia el color de la representacion visual, si ya existe.
+     * @param color Nuevo color
+     */
+    protected void changeVisualColor(String color) {
+        if (visualRepresentation != null) {
+            visualRepresentation.changeColor(color);
+        }
+    }
+    
+    /**
+     * Hace visible la tienda en el canvas, creando su representacion si hace falta.
      */
     public void makeVisible() {
+        sync();
+        // El simulador puede haber reabastecido la fila sin pasar por esta vista
+        String color = table.tenges(row) == 0 ? "gray" : originalColor;
+        if (visualRepresentation == null) {
+            visualRepresentation = new Rectangle();
+            visualRepresentation.changeSize(30, 30);
+            visualRepresentation.setPosition(visualX, visualY);
+        }
+        visualRepresentation.changeColor(color);
         visualRepresentation.makeVisible();
     }
     
@@ -151,6 +250,8 @@ public abstract class Store {
      * Hace invisible la tienda en el canvas.
      */
     public void makeInvisible() {
-        visualRepresentation.makeInvisible();
+        if (visualRepresentation != null) {
+            visualRepresentation.makeInvisible();
+        }
     }
 }
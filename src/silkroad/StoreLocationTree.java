@@ -0,0 +1,410 @@
+package silkroad;
+
+import java.util.Arrays;
+
+/**
+ * Arbol de segmentos de maximos sobre las ubicaciones con tienda, comprimidas y
+ * ordenadas, asi que ocupa memoria proporcional a las tiendas y no a la ruta.
+ * Cada hoja guarda los tenges de la tienda en esa ubicacion si un robot podria ir
+ * por ella (tiene dinero y no hay robots encima), o 0 si no.
+ *
+ * Responde "la mejor tienda para un robot en p" con el mismo puntaje que el
+ * simulador, tenges / (2 * distancia), recorriendo el arbol desde p hacia afuera
+ * y descartando los nodos cuya cota (maximo / (2 * distancia minima)) no alcanza
+ * al mejor encontrado. Los empates se resuelven por orden de llegada de la tienda.
+ *
+ * La poda no garantiza tiempo logaritmico. El maximo de un nodo y su distancia
+ * minima pueden venir de tiendas distintas, asi que la cota puede ser mucho mayor
+ * que el mejor puntaje real del nodo. Ademas, un nodo cuya cota iguala al mejor se
+ * visita igual, por si tiene una tienda que gana el desempate. En el peor caso
+ * bestTarget recorre todas las hojas, O(S) con S tiendas. Pasa, por ejemplo, con
+ * tiendas en 1..S con tenges 2*i vistas desde 0: todas tienen puntaje 1. Con tenges
+ * variados la poda corta casi todo el arbol y se visitan pocos nodos.
+ *
+ * Las ubicaciones nuevas esperan en una lista pequeña, con su propio maximo, que
+ * solo se recorre si ese maximo puede superar al mejor del arbol; cuando pasa de
+ * la raiz de n entradas se mezcla con las hojas y el arbol se reconstruye en
+ * O(n), dejando fuera las tiendas quitadas.
+ *
+ * Reabastecer y reiniciar cuestan O(1): cada nodo guarda tambien el maximo que
+ * tendria tras reabastecer (tenges iniciales con los robots donde estan) y tras
+ * reiniciar (tenges iniciales con los robots en su ubicacion inicial), y una marca
+ * de epoca. Un nodo con marca vieja toma esos valores la primera vez que se visita.
+ *
+ * @author Santiago Andres Gomez Rojas y Miguel Angel Sandoval
+ */
+class StoreLocationTree {
+    private static final int MIN_PENDING = 32;
+    private static final int REMOVED = -1;
+
+    private int slots;
+    private int leaves;
+    private int[] positions;
+    private int[] sequence;
+    private int[] maxTenges;
+    private int[] resuppliedMax;
+    private int[] rebootedMax;
+    private int[] stamp;
+
+    private int pendingCount;
+    private int[] pendingLocation = new int[MIN_PENDING];
+    private int[] pendingSequence = new int[MIN_PENDING];
+    private int[] pendingTenges = new int[MIN_PENDING];
+    private int[] pendingResupplied = new int[MIN_PENDING];
+    private int[] pendingRebooted = new int[MIN_PENDING];
+    private int[] pendingStamp = new int[MIN_PENDING];
+    private int pendingMax;
+    private int pendingResuppliedMax;
+    private int pendingRebootedMax;
+    private int pendingMaxStamp;
+
+    private int epoch;
+    private int rebootEpoch;
+
+    private int position;
+    private double bestValue;
+    private int bestSequence;
+    private int bestLocation;
+
+    /**
+     * Crea un arbol vacio.
+     */
+    StoreLocationTree() {
+        this.epoch = 0;
+        this.rebootEpoch = 0;
+        rebuild(new int[0], new int[0], new int[0], new int[0], new int[0], 0);
+    }
+
+    /**
+     * Registra la tienda de una ubicacion con su orden de llegada, para desempatar.
+     * Sus tenges empiezan en 0 hasta el siguiente update.
+     * @param location Ubicacion en la ruta
+     * @param order Orden de llegada (menor gana en empates)
+     */
+    void setOrder(int location, int order) {
+        int leaf = leafOf(location);
+        if (leaf >= 0) {
+            sequence[leaf] = order;
+            return;
+        }
+        int entry = pendingOf(location);
+        if (entry >= 0) {
+            pendingSequence[entry] = order;
+            return;
+        }
+
+        if (pendingCount == pendingLocation.length) {
+            int capacity = pendingCount * 2;
+            pendingLocation = Arrays.copyOf(pendingLocation, capacity);
+            pendingSequence = Arrays.copyOf(pendingSequence, capacity);
+            pendingTenges = Arrays.copyOf(pendingTenges, capacity);
+            pendingResupplied = Arrays.copyOf(pendingResupplied, capacity);
+            pendingRebooted = Arrays.copyOf(pendingRebooted, capacity);
+            pendingStamp = Arrays.copyOf(pendingStamp, capacity);
+        }
+        entry = pendingCount++;
+        pendingLocation[entry] = location;
+        pendingSequence[entry] = order;
+        pendingTenges[entry] = 0;
+        pendingResupplied[entry] = 0;
+        pendingRebooted[entry] = 0;
+        pendingStamp[entry] = epoch;
+
+        if (pendingCount > pendingLimit()) {
+            merge();
+        }
+    }
+
+    /**
+     * Quita la tienda de una ubicacion; su hoja se descarta en la siguiente reconstruccion.
+     * @param location Ubicacion en la ruta
+     */
+    void remove(int location) {
+        update(location, 0, 0, 0);
+        int leaf = leafOf(location);
+        if (leaf >= 0) {
+            sequence[leaf] = REMOVED;
+        }
+        int entry = pendingOf(location);
+        if (entry >= 0) {
+            pendingSequence[entry] = REMOVED;
+        }
+    }
+
+    /**
+     * Actualiza la hoja de una ubicacion. Las ubicaciones sin tienda registrada se ignoran.
+     * @param location Ubicacion en la ruta
+     * @param tenges Tenges disponibles ahora (0 si ningun robot puede ir por ella)
+     * @param resupplied Tenges que tendria tras reabastecer
+     * @param rebooted Tenges que tendria tras reiniciar
+     */
+    void update(int location, int tenges, int resupplied, int rebooted) {
+        int leaf = leafOf(location);
+        if (leaf < 0) {
+            int entry = pendingOf(location);
+            if (entry >= 0) {
+                pendingTenges[entry] = Math.max(0, tenges);
+                pendingResupplied[entry] = Math.max(0, resupplied);
+                pendingRebooted[entry] = Math.max(0, rebooted);
+                pendingStamp[entry] = epoch;
+                recomputePendingMax();
+            }
+            return;
+        }
+
+        int node = leaves + leaf;
+        for (int shift = Integer.numberOfTrailingZeros(leaves); shift >= 0; shift--) {
+            sync(node >> shift);
+        }
+
+        maxTenges[node] = Math.max(0, tenges);
+        resuppliedMax[node] = Math.max(0, resupplied);
+        rebootedMax[node] = Math.max(0, rebooted);
+
+        for (node >>= 1; node >= 1; node >>= 1) {
+            int left = 2 * node;
+            int right = left + 1;
+            sync(left);
+            sync(right);
+            pull(node);
+        }
+    }
+
+    /**
+     * Marca todas las tiendas como reabastecidas en O(1).
+     */
+    void resupplyAll() {
+        epoch++;
+    }
+
+    /**
+     * Marca todas las tiendas como reabastecidas y todos los robots en su
+     * ubicacion inicial en O(1).
+     */
+    void rebootAll() {
+        epoch++;
+        rebootEpoch = epoch;
+    }
+
+    /**
+     * Busca la tienda con mejor puntaje para un robot.
+     * @param from Ubicacion del robot
+     * @return Ubicacion de la mejor tienda, o -1 si no hay ninguna con puntaje positivo
+     */
+    int bestTarget(int from) {
+        position = from;
+        bestValue = 0;
+        bestSequence = Integer.MAX_VALUE;
+        bestLocation = -1;
+        search(1, 0, leaves - 1);
+
+        // La lista de espera solo se recorre si alguna entrada a distancia 1 mejoraria
+        syncPendingMax();
+        if (pendingMax > 0 && (double) pendingMax / 2 >= bestValue) {
+            for (int entry = 0; entry < pendingCount; entry++) {
+                syncPending(entry);
+                int distance = Math.abs(pendingLocation[entry] - from);
+                if (pendingTenges[entry] > 0 && distance > 0) {
+                    offer((double) pendingTenges[entry] / (distance * 2),
+                          pendingSequence[entry], pendingLocation[entry]);
+                }
+            }
+        }
+        return bestLocation;
+    }
+
+    /**
+     * Aplica a un nodo los reabastecimientos y reinicios ocurridos desde su ultima visita.
+     * Mientras nadie visite un nodo su subarbol no cambia, asi que basta con su marca.
+     */
+    private void sync(int node) {
+        if (stamp[node] != epoch) {
+            if (stamp[node] < rebootEpoch) {
+                resuppliedMax[node] = rebootedMax[node];
+            }
+            maxTenges[node] = resuppliedMax[node];
+            stamp[node] = epoch;
+        }
+    }
+
+    private void syncPending(int entry) {
+        if (pendingStamp[entry] != epoch) {
+            if (pendingStamp[entry] < rebootEpoch) {
+                pendingResupplied[entry] = pendingRebooted[entry];
+            }
+            pendingTenges[entry] = pendingResupplied[entry];
+            pendingStamp[entry] = epoch;
+        }
+    }
+
+    private void syncPendingMax() {
+        if (pendingMaxStamp != epoch) {
+            if (pendingMaxStamp < rebootEpoch) {
+                pendingResuppliedMax = pendingRebootedMax;
+            }
+            pendingMax = pendingResuppliedMax;
+            pendingMaxStamp = epoch;
+        }
+    }
+
+    private void recomputePendingMax() {
+        pendingMax = 0;
+        pendingResuppliedMax = 0;
+        pendingRebootedMax = 0;
+        for (int entry = 0; entry < pendingCount; entry++) {
+            syncPending(entry);
+            pendingMax = Math.max(pendingMax, pendingTenges[entry]);
+            pendingResuppliedMax = Math.max(pendingResuppliedMax, pendingResupplied[entry]);
+            pendingRebootedMax = Math.max(pendingRebootedMax, pendingRebooted[entry]);
+        }
+        pendingMaxStamp = epoch;
+    }
+
+    private void pull(int node) {
+        int left = 2 * node;
+        int right = left + 1;
+        maxTenges[node] = Math.max(maxTenges[left], maxTenges[right]);
+        resuppliedMax[node] = Math.max(resuppliedMax[left], resuppliedMax[right]);
+        rebootedMax[node] = Math.max(rebootedMax[left], rebootedMax[right]);
+    }
+
+    private void offer(double value, int order, int location) {
+        if (value > bestValue || (value == bestValue && order < bestSequence)) {
+            bestValue = value;
+            bestSequence = order;
+            bestLocation = location;
+        }
+    }
+
+    private void search(int node, int low, int high) {
+        sync(node);
+        if (maxTenges[node] == 0 || low >= slots) {
+            return;
+        }
+
+        int first = positions[low];
+        int last = positions[Math.min(high, slots - 1)];
+        int minDistance = position < first ? first - position : (position > last ? position - last : 0);
+        if (minDistance > 0 && (double) maxTenges[node] / (minDistance * 2) < bestValue) {
+            return;
+        }
+
+        if (low == high) {
+            if (minDistance > 0) {
+                offer((double) maxTenges[node] / (minDistance * 2), sequence[low], first);
+            }
+            return;
+        }
+
+        // Primero el hijo mas cercano al robot, para encontrar pronto una buena cota
+        int middle = (low + high) >>> 1;
+        if (middle + 1 >= slots || position < positions[middle + 1]) {
+            search(2 * node, low, middle);
+            search(2 * node + 1, middle + 1, high);
+        } else {
+            search(2 * node + 1, middle + 1, high);
+            search(2 * node, low, middle);
+        }
+    }
+
+    /**
+     * Busca la hoja de una ubicacion en las posiciones ordenadas.
+     * @return Hoja, o -1 si la ubicacion no esta en el arbol
+     */
+    private int leafOf(int location) {
+        int leaf = Arrays.binarySearch(positions, 0, slots, location);
+        return leaf >= 0 ? leaf : -1;
+    }
+
+    private int pendingOf(int location) {
+        for (int entry = 0; entry < pendingCount; entry++) {
+            if (pendingLocation[entry] == location) {
+                return entry;
+            }
+        }
+        return -1;
+    }
+
+    private int pendingLimit() {
+        return Math.max(MIN_PENDING, (int) Math.sqrt(slots));
+    }
+
+    /**
+     * Mezcla la lista de espera con las hojas vivas, en orden de ubicacion, y
+     * reconstruye el arbol.
+     */
+    private void merge() {
+        long[] keys = new long[pendingCount];
+        for (int entry = 0; entry < pendingCount; entry++) {
+            syncPending(entry);
+            keys[entry] = ((long) pendingLocation[entry] << 32) | entry;
+        }
+        Arrays.sort(keys);
+
+        int capacity = slots + pendingCount;
+        int[] location = new int[capacity];
+        int[] order = new int[capacity];
+        int[] tenges = new int[capacity];
+        int[] resupplied = new int[capacity];
+        int[] rebooted = new int[capacity];
+        int count = 0;
+        int leaf = 0;
+        int next = 0;
+        while (leaf < slots || next < pendingCount) {
+            int entry = next < pendingCount ? (int) keys[next] : -1;
+            if (entry < 0 || (leaf < slots && positions[leaf] < pendingLocation[entry])) {
+                int node = leaves + leaf;
+                sync(node);
+                if (sequence[leaf] != REMOVED) {
+                    location[count] = positions[leaf];
+                    order[count] = sequence[leaf];
+                    tenges[count] = maxTenges[node];
+                    resupplied[count] = resuppliedMax[node];
+                    rebooted[count] = rebootedMax[node];
+                    count++;
+                }
+                leaf++;
+            } else {
+                if (pendingSequence[entry] != REMOVED) {
+                    location[count] = pendingLocation[entry];
+                    order[count] = pendingSequence[entry];
+                    tenges[count] = pendingTenges[entry];
+                    resupplied[count] = pendingResupplied[entry];
+                    rebooted[count] = pendingRebooted[entry];
+                    count++;
+                }
+                next++;
+            }
+        }
+
+        pendingCount = 0;
+        recomputePendingMax();
+        rebuild(location, order, tenges, resupplied, rebooted, count);
+    }
+
+    /**
+     * Construye el arbol de abajo hacia arriba con hojas ya ordenadas y al dia.
+     */
+    private void rebuild(int[] location, int[] order, int[] tenges, int[] resupplied,
+                         int[] rebooted, int count) {
+        int size = 1;
+        while (size < count) {
+            size <<= 1;
+        }
+        slots = count;
+        leaves = size;
+        positions = Arrays.copyOf(location, count);
+        sequence = Arrays.copyOf(order, size);
+        maxTenges = new int[2 * size];
+        resuppliedMax = new int[2 * size];
+        rebootedMax = new int[2 * size];
+        stamp = new int[2 * size];
+        System.arraycopy(tenges, 0, maxTenges, size, count);
+        System.arraycopy(resupplied, 0, resuppliedMax, size, count);
+        System.arraycopy(rebooted, 0, rebootedMax, size, count);
+        Arrays.fill(stamp, epoch);
+        for (int node = size - 1; node >= 1; node--) {
+            pull(node);
+        }
+    }
+}
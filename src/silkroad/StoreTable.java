@@ -0,0 +1,216 @@
+package silkroad;
+
+import java.util.Arrays;
+
+/**
+ * Estado de las tiendas guardado en columnas de enteros primitivos (ubicacion,
+ * tenges, tenges iniciales, veces vaciada y marcas de epoca), una fila por
+ * tienda en orden de llegada. Cada Store es una vista sobre una fila: conserva solo
+ * su comportamiento y su dibujo, asi que recorrer las tiendas lee arreglos seguidos
+ * en lugar de saltar de objeto en objeto.
+ *
+ * Las tiendas que coloca el simulador nacen con su fila en la tabla del simulador.
+ * Una tienda creada fuera de el vive en una tabla propia de una fila, y una que se
+ * quita del simulador se lleva su fila a una tabla propia. Quitar una fila corre
+ * las siguientes, como en una lista.
+ *
+ * @author Santiago Andres Gomez Rojas y Miguel Angel Sandoval
+ */
+class StoreTable {
+    private final SilkRoad owner;
+    private Store[] views;
+    private int[] location;
+    private int[] tenges;
+    private int[] initialTenges;
+    private int[] timesEmptied;
+    private int[] resupplyStamp;
+    private int[] rebootStamp;
+    private int size;
+
+    /**
+     * Crea una tabla vacia.
+     * @param owner Simulador que lleva las epocas (null para una tienda suelta)
+     * @param capacity Filas reservadas al inicio (> 0)
+     */
+    StoreTable(SilkRoad owner, int capacity) {
+        this.owner = owner;
+        this.views = new Store[capacity];
+        this.location = new int[capacity];
+        this.tenges = new int[capacity];
+        this.initialTenges = new int[capacity];
+        this.timesEmptied = new int[capacity];
+        this.resupplyStamp = new int[capacity];
+        this.rebootStamp = new int[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * Obtiene el simulador dueño de la tabla.
+     * @return Simulador, o null si es la tabla de una tienda suelta
+     */
+    SilkRoad owner() {
+        return owner;
+    }
+
+    /**
+     * Obtiene el numero de tiendas.
+     * @return Filas ocupadas
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Obtiene la tienda de una fila.
+     * @param row Fila
+     * @return Vista de la fila
+     */
+    Store view(int row) {
+        return views[row];
+    }
+
+    /**
+     * Agrega una tienda nueva al final.
+     * @param view Tienda que vera la fila
+     * @param storeLocation Ubicacion en la ruta
+     * @param storeTenges Tenges iniciales
+     * @return Fila asignada
+     */
+    int add(Store view, int storeLocation, int storeTenges) {
+        int row = append(view);
+        location[row] = storeLocation;
+        tenges[row] = storeTenges;
+        initialTenges[row] = storeTenges;
+        timesEmptied[row] = 0;
+        return row;
+    }
+
+    /**
+     * Copia al final una fila de otra tabla (que ya debe estar al dia con sus epocas).
+     * La fila queda al dia con las epocas de esta tabla.
+     * @param source Tabla de origen
+     * @param sourceRow Fila en la tabla de origen
+     * @return Fila asignada
+     */
+    int adopt(StoreTable source, int sourceRow) {
+        int row = append(source.views[sourceRow]);
+        location[row] = source.location[sourceRow];
+        tenges[row] = source.tenges[sourceRow];
+        initialTenges[row] = source.initialTenges[sourceRow];
+        timesEmptied[row] = source.timesEmptied[sourceRow];
+        return row;
+    }
+
+    private int append(Store view) {
+        if (size == views.length) {
+            int capacity = size * 2;
+            views = Arrays.copyOf(views, capacity);
+            location = Arrays.copyOf(location, capacity);
+            tenges = Arrays.copyOf(tenges, capacity);
+            initialTenges = Arrays.copyOf(initialTenges, capacity);
+            timesEmptied = Arrays.copyOf(timesEmptied, capacity);
+            resupplyStamp = Arrays.copyOf(resupplyStamp, capacity);
+            rebootStamp = Arrays.copyOf(rebootStamp, capacity);
+        }
+        int row = size++;
+        views[row] = view;
+        resupplyStamp[row] = owner == null ? 0 : owner.resupplyEpoch();
+        rebootStamp[row] = owner == null ? 0 : owner.rebootEpoch();
+        return row;
+    }
+
+    /**
+     * Quita una fila corriendo las siguientes una posicion y avisando a sus vistas.
+     * @param row Fila a quitar
+     */
+    void remove(int row) {
+        int moved = size - row - 1;
+        System.arraycopy(views, row + 1, views, row, moved);
+        System.arraycopy(location, row + 1, location, row, moved);
+        System.arraycopy(tenges, row + 1, tenges, row, moved);
+        System.arraycopy(initialTenges, row + 1, initialTenges, row, moved);
+        System.arraycopy(timesEmptied, row + 1, timesEmptied, row, moved);
+        System.arraycopy(resupplyStamp, row + 1, resupplyStamp, row, moved);
+        System.arraycopy(rebootStamp, row + 1, rebootStamp, row, moved);
+        size--;
+        views[size] = null;
+        for (int i = row; i < size; i++) {
+            views[i].moveToRow(i);
+        }
+    }
+
+    /**
+     * Aplica a una fila los reabastecimientos y reinicios globales que no ha visto.
+     * @param row Fila
+     * @return true si los tenges de la fila cambiaron por un reabastecimiento
+     */
+    boolean sync(int row) {
+        if (owner == null) {
+            return false;
+        }
+        if (rebootStamp[row] != owner.rebootEpoch()) {
+            rebootStamp[row] = owner.rebootEpoch();
+            timesEmptied[row] = 0;
+        }
+        if (resupplyStamp[row] != owner.resupplyEpoch()) {
+            resupplyStamp[row] = owner.resupplyEpoch();
+            tenges[row] = initialTenges[row];
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Obtiene la ubicacion de una tienda.
+     * @param row Fila
+     * @return Ubicacion en la ruta
+     */
+    int location(int row) {
+        return location[row];
+    }
+
+    /**
+     * Obtiene los tenges de una tienda (sin aplicar epocas pendientes).
+     * @param row Fila
+     * @return Tenges
+     */
+    int tenges(int row) {
+        return tenges[row];
+    }
+
+    /**
+     * Cambia los tenges de una tienda.
+     * @param row Fila
+     * @param value Tenges nuevos
+     */
+    void setTenges(int row, int value) {
+        tenges[row] = value;
+    }
+
+    /**
+     * Obtiene los tenges iniciales de una tienda.
+     * @param row Fila
+     * @return Tenges iniciales
+     */
+    int initialTenges(int row) {
+        return initialTenges[row];
+    }
+
+    /**
+     * Obtiene cuantas veces se vacio una tienda (sin aplicar epocas pendientes).
+     * @param row Fila
+     * @return Veces vaciada
+     */
+    int timesEmptied(int row) {
+        return timesEmptied[row];
+    }
+
+    /**
+     * Cambia cuantas veces se vacio una tienda.
+     * @param row Fila
+     * @param value Veces vaciada
+     */
+    void setTimesEmptied(int row, int value) {
+        timesEmptied[row] = value;
+    }
+}
@@ -19,6 +19,18 @@ public class TenderRobot extends Robot {
         super(location, color, x, y);
     }
     
+    /**
+     * Crea un robot tierno con su fila en la tabla del simulador.
+     * @param owner Simulador dueño
+     * @param location Posicion inicial del robot
+     * @param color Color del robot
+     * @param x Coordenada X visual
+     * @param y Coordenada Y visual
+     */
+    TenderRobot(SilkRoad owner, int location, String color, int x, int y) {
+        super(owner, location, color, x, y);
+    }
+    
     @Override
     public int collectFromStore(Store store) {
         int available = store.getTenges();